@@ -118,4 +118,29 @@ class BoardTest {
         expected.add(6);
         Assert.assertEquals(expected,board.hint(1,0));
     }
+
+    @Test
+    void hintMask() {
+        Board board= new Board();
+        board.check(0,0,1);
+        board.check(0,1,5);
+        board.check(6,0,9);
+        board.check(1,8,7);
+        board.check(1,6,8);
+        board.check(1,2,3);
+        long expected= (1L<<1) | (1L<<3) | (1L<<5); //numbers 2, 4 and 6
+        Assert.assertEquals(expected,board.hintMask(1,0));
+        Assert.assertEquals(0,board.hintMask(0,0) & 1L); //1 is already in the box
+    }
+
+    @Test
+    void getNumber() {
+        Board board= new Board(16,false);
+        board.check(15,3,12);
+        Assert.assertEquals(12,board.getNumber(15,3));
+        Assert.assertEquals(0,board.getNumber(3,15));
+        Assert.assertFalse(board.isEmpty(15,3));
+        Assert.assertTrue(board.isEmpty(0,0));
+        Assert.assertEquals(-1,board.check(0,16,1)); //out of the board even though the flat array is bigger
+    }
 }
\ No newline at end of file
@@ -1,8 +1,13 @@
 import sudoku.ClassicBoard;
+import sudoku.Difficulty;
 import org.junit.Assert;
 import org.junit.jupiter.api.Test;
 import sudoku.Player;
 
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
 class ClassicBoardTest {
 
     @Test
@@ -42,6 +47,166 @@ class ClassicBoardTest {
         board.startNewGameForPlayer(player);
         Assert.assertTrue(board.getCode()==3 || board.getCode()==9);
 
+        player.addClassicSudoku(3);
+        player.addClassicSudoku(9);
+        board.startNewGameForPlayer(player); //all the puzzles are won, so a new one is generated
+        Assert.assertEquals(0, board.getCode());
+        Assert.assertTrue(board.hasUniqueSolution());
+
+
+    }
+
+    @Test
+    void hasUniqueSolution(){
+        ClassicBoard board= new ClassicBoard(9,false,1);
+        Assert.assertTrue(board.hasUniqueSolution());
 
+        ClassicBoard empty= new ClassicBoard(9,false);
+        Assert.assertFalse(empty.hasUniqueSolution());
+    }
+
+    @Test
+    void loadBoard() throws IOException {
+        File file = File.createTempFile("classic", ".txt");
+        File index = new File(file.getPath() + ".idx");
+        try {
+            String row = "0 0 0 0 0 0 0 0 0\n";
+            StringBuilder puzzles = new StringBuilder("1 19\n1 0 0 0 0 0 0 0 0\n");
+            for (int i = 1; i < 9; i++) {
+                puzzles.append(row);
+            }
+            puzzles.append("2\n").append("0 2 0 0 0 0 0 0 0\n");
+            for (int i = 1; i < 9; i++) {
+                puzzles.append(row);
+            }
+            try (FileWriter write = new FileWriter(file)) {
+                write.write(puzzles.toString());
+            }
+            ClassicBoard board = new ClassicBoard(9, false, 2, 2, file.getPath());
+            Assert.assertEquals(2, board.getNumber(0, 1));
+            Assert.assertTrue(index.isFile()); //the index is saved next to the file
+
+            try (FileWriter write = new FileWriter(file, true)) {
+                write.write("3\n9 0 0 0 0 0 0 0 0\n"); //the file changes, so the index is made again
+                for (int i = 1; i < 9; i++) {
+                    write.write(row);
+                }
+            }
+            board = new ClassicBoard(9, false, 3, 3, file.getPath());
+            Assert.assertEquals(9, board.getNumber(0, 0));
+            board = new ClassicBoard(9, false, 3, 1, file.getPath());
+            Assert.assertEquals(1, board.getNumber(0, 0));
+        } finally {
+            file.delete();
+            index.delete();
+        }
+    }
+
+    @Test
+    void numberOfPuzzlesFromFile() throws IOException {
+        File file = File.createTempFile("classic", ".txt");
+        try {
+            StringBuilder puzzles = new StringBuilder();
+            for (int code : new int[]{1, 5, 12}) {
+                puzzles.append(code).append("\n").append(code % 9 + 1).append(" 0 0 0 0 0 0 0 0\n");
+                for (int i = 1; i < 9; i++) {
+                    puzzles.append("0 0 0 0 0 0 0 0 0\n");
+                }
+            }
+            try (FileWriter write = new FileWriter(file)) {
+                write.write(puzzles.toString());
+            }
+            ClassicBoard board = new ClassicBoard(9, false);
+            Player player = new Player();
+            player.addClassicSudoku(1);
+            player.addClassicSudoku(5);
+            board.startNewGameForPlayer(player, file.getPath());
+            Assert.assertEquals(3, board.getNumberOfPuzzles());
+            Assert.assertEquals(12, board.getCode()); //the code after the first 10 is found too
+            Assert.assertEquals(4, board.getNumber(0, 0));
+        } finally {
+            file.delete();
+            new File(file.getPath() + ".idx").delete();
+        }
+        try {
+            new ClassicBoard(9, false, 11);
+            Assert.fail("the file has 10 puzzles");
+        } catch (IllegalArgumentException exc) {
+            //expected
+        }
+    }
+
+    @Test
+    void findNonPlayedGameInBigFile() throws IOException {
+        File file = File.createTempFile("classic", ".txt");
+        try (FileWriter write = new FileWriter(file)) {
+            ClassicBoard shipped = new ClassicBoard(9, false, 1);
+            StringBuilder rows = new StringBuilder();
+            for (int i = 0; i < 9; i++) {
+                for (int j = 0; j < 9; j++) {
+                    rows.append(j == 0 ? "" : " ").append(shipped.getNumber(i, j));
+                }
+                rows.append("\n");
+            }
+            for (int code = 1; code <= 1000; code++) {
+                write.write(code + "\n" + rows);
+            }
+        }
+        try {
+            ClassicBoard board = new ClassicBoard(9, false);
+            Player player = new Player();
+            for (int code = 1; code <= 998; code++) {
+                player.addClassicSudoku(code);
+            }
+            board.startNewGameForPlayer(player, file.getPath());
+            Assert.assertEquals(1000, board.getNumberOfPuzzles());
+            Assert.assertTrue(board.getCode() == 999 || board.getCode() == 1000);
+
+            player.addClassicSudoku(999);
+            for (int i = 0; i < 20; i++) {
+                board.startNewGameForPlayer(player, file.getPath());
+                Assert.assertEquals(1000, board.getCode());
+            }
+
+            player.addClassicSudoku(1000);
+            board.startNewGameForPlayer(player, file.getPath());
+            Assert.assertEquals(0, board.getCode()); //all the puzzles are won
+        } finally {
+            file.delete();
+            new File(file.getPath() + ".idx").delete();
+        }
+    }
+
+    @Test
+    void difficultyFilter() throws IOException {
+        File file = File.createTempFile("classic", ".txt");
+        try (FileWriter write = new FileWriter(file)) {
+            ClassicBoard shipped = new ClassicBoard(9, false, 1);
+            StringBuilder rows = new StringBuilder();
+            for (int i = 0; i < 9; i++) {
+                for (int j = 0; j < 9; j++) {
+                    rows.append(j == 0 ? "" : " ").append(shipped.getNumber(i, j));
+                }
+                rows.append("\n");
+            }
+            write.write("1 19\n" + rows + "2 45\n" + rows + "3 90\n" + rows + "4\n" + rows);
+        }
+        try {
+            ClassicBoard board = new ClassicBoard(9, false);
+            board.setDifficulty(Difficulty.MEDIUM);
+            board.setDifficultyFilter(true);
+            Player player = new Player();
+            for (int i = 0; i < 20; i++) {
+                board.startNewGameForPlayer(player, file.getPath());
+                Assert.assertTrue(board.getCode() == 2 || board.getCode() == 4); //4 has no grade, so it is kept
+            }
+            player.addClassicSudoku(2);
+            player.addClassicSudoku(4);
+            board.startNewGameForPlayer(player, file.getPath()); //no medium puzzle is left, so the others are played
+            Assert.assertTrue(board.getCode() == 1 || board.getCode() == 3);
+        } finally {
+            file.delete();
+            new File(file.getPath() + ".idx").delete();
+        }
     }
-}
\ No newline at end of file
+}
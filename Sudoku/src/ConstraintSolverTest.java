@@ -0,0 +1,49 @@
+import sudoku.Board;
+import sudoku.ClassicBoard;
+import sudoku.ConstraintSolver;
+import sudoku.DancingLinksSolver;
+import sudoku.Technique;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+class ConstraintSolverTest {
+
+    @Test
+    void solve() {
+        ConstraintSolver solver = new ConstraintSolver();
+        DancingLinksSolver other = new DancingLinksSolver();
+        for (int code = 1; code <= 10; code++) {
+            ClassicBoard board = new ClassicBoard(9, false, code);
+            Assert.assertArrayEquals(other.solve(board), solver.solve(board)); //the puzzles have one solution
+        }
+    }
+
+    @Test
+    void solveBiggerBoard() {
+        ConstraintSolver solver = new ConstraintSolver();
+        int[][] solution = solver.solve(new Board(16, false));
+        Board check = new Board(16, false);
+        for (int i = 0; i < 16; i++) {
+            for (int j = 0; j < 16; j++) {
+                Assert.assertEquals(0, check.check(i, j, solution[i][j])); //every number follows the rules
+            }
+        }
+    }
+
+    @Test
+    void solveAll() {
+        ConstraintSolver solver = new ConstraintSolver();
+        Assert.assertEquals(288, solver.solveAll(new Board(4, false), 1000).size());
+        Assert.assertEquals(3, solver.solveAll(new Board(9, false), 3).size());
+    }
+
+    @Test
+    void getStatistics() {
+        ConstraintSolver solver = new ConstraintSolver();
+        solver.solve(new ClassicBoard(9, false, 1));
+        Assert.assertEquals(1, solver.getStatistics().getSolutions());
+        Assert.assertTrue(solver.getStatistics().getTechniqueCount(Technique.NAKED_SINGLE)
+                + solver.getStatistics().getTechniqueCount(Technique.HIDDEN_SINGLE) > 0);
+        Assert.assertFalse(solver.getStatistics().getTechniquesUsed().isEmpty());
+    }
+}
@@ -0,0 +1,75 @@
+import sudoku.Board;
+import sudoku.ClassicBoard;
+import sudoku.DancingLinksSolver;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+
+class DancingLinksSolverTest {
+
+    /** Checks that a solution keeps the numbers of the board and that every row, column and block has all the numbers
+     */
+    private static void assertSolves(Board board, int[][] solution) {
+        int size = board.getSize();
+        int sqrt = (int) Math.sqrt(size);
+        for (int i = 0; i < size; i++) {
+            HashSet<Integer> row = new HashSet<>(), column = new HashSet<>(), block = new HashSet<>();
+            for (int j = 0; j < size; j++) {
+                if (!board.isEmpty(i, j)) {
+                    Assert.assertEquals(board.getNumber(i, j), solution[i][j]);
+                }
+                row.add(solution[i][j]);
+                column.add(solution[j][i]);
+                block.add(solution[(i / sqrt) * sqrt + j / sqrt][(i % sqrt) * sqrt + j % sqrt]);
+            }
+            Assert.assertEquals(size, row.size());
+            Assert.assertEquals(size, column.size());
+            Assert.assertEquals(size, block.size());
+        }
+    }
+
+    @Test
+    void solve() {
+        DancingLinksSolver solver = new DancingLinksSolver();
+        for (int code = 1; code <= 10; code++) {
+            ClassicBoard board = new ClassicBoard(9, false, code);
+            int[][] solution = solver.solve(board);
+            Assert.assertNotNull(solution);
+            assertSolves(board, solution);
+        }
+        Board empty = new Board(16, false);
+        assertSolves(empty, solver.solve(empty));
+    }
+
+    @Test
+    void solveAll() {
+        DancingLinksSolver solver = new DancingLinksSolver();
+        Board board = new Board(4, false);
+        Assert.assertEquals(288, solver.solveAll(board, 1000).size()); //all the 4x4 sudokus
+        Assert.assertEquals(5, solver.solveAll(board, 5).size());
+        Assert.assertEquals(5, solver.getStatistics().getSolutions());
+
+        ClassicBoard unique = new ClassicBoard(9, false, 1);
+        Assert.assertEquals(1, solver.solveAll(unique, 2).size());
+    }
+
+    @Test
+    void noSolution() {
+        DancingLinksSolver solver = new DancingLinksSolver();
+        Board board = new Board();
+        board.check(0, 0, 1);
+        board.check(1, 3, 2);
+        board.check(2, 6, 3);
+        board.check(4, 1, 2);
+        board.check(7, 2, 2); //now 2 fits nowhere in the first row
+        board.check(0, 3, 4);
+        board.check(0, 4, 5);
+        board.check(0, 5, 6);
+        board.check(0, 6, 7);
+        board.check(0, 7, 8);
+        board.check(0, 8, 9);
+        Assert.assertNull(solver.solve(board));
+        Assert.assertTrue(solver.solveAll(board, 3).isEmpty());
+    }
+}
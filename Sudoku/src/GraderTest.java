@@ -0,0 +1,70 @@
+import sudoku.ClassicBoard;
+import sudoku.Difficulty;
+import sudoku.Grade;
+import sudoku.Grader;
+import sudoku.PuzzleGenerator;
+import sudoku.Technique;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+
+class GraderTest {
+
+    @Test
+    void grade() {
+        Grader grader = new Grader();
+        Grade easy = grader.grade(new ClassicBoard(9, false, 1));
+        Assert.assertTrue(easy.isSolvedByLogic());
+        Assert.assertEquals(Technique.NAKED_SINGLE, easy.getHardestTechnique());
+        Assert.assertEquals(19, easy.getScore());
+        Assert.assertEquals(Difficulty.EASY, easy.getDifficulty());
+
+        Grade notUnique = grader.grade(new ClassicBoard(9, false, 5)); //puzzle 5 has more than one solution
+        Assert.assertFalse(notUnique.isSolvedByLogic());
+        Assert.assertEquals(Grade.UNSOLVED_SCORE, notUnique.getScore());
+        Assert.assertEquals(Difficulty.HARD, notUnique.getDifficulty());
+
+        int[][] solution = new int[9][9];
+        for (int i = 0; i < 9; i++) {
+            for (int j = 0; j < 9; j++) {
+                solution[i][j] = (i * 3 + i / 3 + j) % 9 + 1;
+            }
+        }
+        Grade solved = grader.grade(solution);
+        Assert.assertTrue(solved.isSolvedByLogic());
+        Assert.assertNull(solved.getHardestTechnique());
+        Assert.assertEquals(0, solved.getScore());
+        Assert.assertEquals(Difficulty.EASY, solved.getDifficulty());
+    }
+
+    @Test
+    void gradeGenerated() {
+        Grader grader = new Grader();
+        PuzzleGenerator generator = new PuzzleGenerator(3);
+        for (int i = 0; i < 50; i++) {
+            int[][] puzzle = generator.generate(9);
+            Grade grade = grader.grade(puzzle);
+            ClassicBoard board = new ClassicBoard(9, false);
+            board.loadPuzzle(puzzle);
+            Assert.assertTrue(board.hasUniqueSolution());
+            Assert.assertTrue(grade.getScore() >= 10 && grade.getScore() <= Grade.UNSOLVED_SCORE);
+            Assert.assertEquals(grade.isSolvedByLogic(), grade.getScore() < Grade.UNSOLVED_SCORE);
+        }
+        try {
+            grader.grade(new int[10][10]);
+            Assert.fail("10 is not a perfect square");
+        } catch (IllegalArgumentException exc) {
+            //expected
+        }
+    }
+
+    @Test
+    void readGrades() throws IOException {
+        HashMap<Integer, Integer> grades = Grader.readGrades("Classic Sudoku Puzzles.txt");
+        Assert.assertEquals(10, grades.size());
+        Assert.assertEquals(Integer.valueOf(19), grades.get(1));
+        Assert.assertEquals(Integer.valueOf(90), grades.get(5));
+    }
+}
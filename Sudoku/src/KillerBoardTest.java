@@ -4,6 +4,9 @@ import org.junit.Assert;
 import org.junit.jupiter.api.Test;
 
 import java.awt.*;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 
 class KillerBoardTest {
 
@@ -43,11 +46,36 @@ class KillerBoardTest {
         Assert.assertTrue(board.check(11,18,20)<=4 && board.check(11,18,20)>=-1);
     }
 
+    @Test
+    void checkColor() {
+        KillerBoard board = new KillerBoard(9,10,false, 1,"Killer Sudoku Puzzles.txt");
+        Assert.assertEquals(0, board.check(0,0,2)); //color group 1 has the boxes 0,0 and 0,1 with sum 3
+        Assert.assertEquals(4, board.check(0,1,2));
+        Assert.assertEquals(0, board.check(0,1,1));
+        Assert.assertEquals(0, board.check(0,7,9)); //color group 5 has the boxes 0,7 and 1,7 with sum 16
+        Assert.assertEquals(4, board.check(1,7,6));
+        Assert.assertEquals(0, board.check(1,7,7));
+        Assert.assertTrue(board.hint(1,8).size() < 9);
+    }
+
+    @Test
+    void hint() {
+        KillerBoard board = new KillerBoard(9,10,false, 1,"Killer Sudoku Puzzles.txt");
+        Assert.assertEquals(new HashSet<>(Arrays.asList(1, 2)), board.hint(0,0)); //2 boxes with sum 3
+        board.check(0,0,2);
+        Assert.assertEquals(new HashSet<>(Collections.singletonList(1)), board.hint(0,1));
+    }
+
     @Test
     void getColorSum() {
         KillerBoard board = new KillerBoard(9,10,false, 1,"Killer Sudoku Puzzles.txt");
         Assert.assertEquals(15, board.getColorSum(2));
         Assert.assertEquals(16,board.getColorSum(5));
+        int total = 0;
+        for (int code = 1; code <= 29; code++) { //puzzle 1 has 29 color groups
+            total += board.getColorSum(code);
+        }
+        Assert.assertEquals(405, total);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+import sudoku.KillerBoard;
+import sudoku.KillerGenerator;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+class KillerGeneratorTest {
+
+    @Test
+    void generateBoard() {
+        KillerGenerator generator = new KillerGenerator(1);
+        for (int i = 0; i < 10; i++) {
+            KillerBoard board = generator.generateBoard(9, false);
+            Assert.assertTrue(board.hasUniqueSolution());
+            Assert.assertEquals(0, board.getCode());
+            int total = 0;
+            for (int code = 1; ; code++) {
+                try {
+                    total += board.getColorSum(code);
+                } catch (IllegalArgumentException exc) {
+                    break; //no more color codes
+                }
+            }
+            Assert.assertEquals(405, total);
+        }
+        Assert.assertTrue(generator.generateBoard(4, true).hasUniqueSolution());
+        try {
+            generator.generateBoard(10, false);
+            Assert.fail("10 is not a perfect square");
+        } catch (IllegalArgumentException exc) {
+            //expected
+        }
+    }
+
+    @Test
+    void appendPuzzles() throws IOException {
+        File file = File.createTempFile("killer", ".txt");
+        try {
+            Assert.assertEquals(3, KillerGenerator.appendPuzzles(file.getPath(), 3, 9));
+            Assert.assertEquals(5, KillerGenerator.appendPuzzles(file.getPath(), 2, 9));
+            for (int code = 1; code <= 5; code++) {
+                KillerBoard board = new KillerBoard(9, 5, false, code, file.getPath());
+                Assert.assertEquals(code, board.getCode());
+                Assert.assertTrue(board.hasUniqueSolution());
+            }
+        } finally {
+            file.delete();
+            new File(file.getPath() + ".idx").delete();
+        }
+    }
+}
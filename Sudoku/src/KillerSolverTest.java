@@ -0,0 +1,55 @@
+import sudoku.Board;
+import sudoku.KillerBoard;
+import sudoku.KillerSolver;
+import sudoku.Technique;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+class KillerSolverTest {
+
+    @Test
+    void solve() {
+        KillerSolver solver = new KillerSolver();
+        for (int code = 1; code <= 10; code++) {
+            if (code == 3) {
+                continue; //the sums of puzzle 3 don't add up to 405
+            }
+            KillerBoard board = new KillerBoard(false, code);
+            int[][] solution = solver.solve(board);
+            Assert.assertNotNull(solution);
+            KillerBoard check = new KillerBoard(false, code);
+            for (int i = 0; i < 9; i++) {
+                for (int j = 0; j < 9; j++) {
+                    Assert.assertEquals(0, check.check(i, j, solution[i][j])); //every number follows the rules and the sums
+                }
+            }
+        }
+        Assert.assertNull(solver.solve(new KillerBoard(false, 3)));
+    }
+
+    @Test
+    void hasUniqueSolution() {
+        KillerSolver solver = new KillerSolver();
+        Assert.assertTrue(solver.hasUniqueSolution(new KillerBoard(false, 1)));
+        Assert.assertTrue(new KillerBoard(false, 7).hasUniqueSolution());
+    }
+
+    @Test
+    void getStatistics() {
+        KillerSolver solver = new KillerSolver();
+        solver.solve(new KillerBoard(false, 2));
+        Assert.assertEquals(1, solver.getStatistics().getSolutions());
+        Assert.assertTrue(solver.getStatistics().getTechniqueCount(Technique.CAGE_COMBINATIONS) > 0);
+        Assert.assertTrue(solver.getStatistics().getElapsedNanos() > 0);
+    }
+
+    @Test
+    void solveClassicBoard() {
+        try {
+            new KillerSolver().solve(new Board(9, false));
+            Assert.fail("only killer boards can be solved");
+        } catch (IllegalArgumentException exc) {
+            //expected
+        }
+    }
+}
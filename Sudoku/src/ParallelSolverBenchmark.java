@@ -0,0 +1,117 @@
+import sudoku.Board;
+import sudoku.ConstraintSolver;
+import sudoku.ParallelSolver;
+import sudoku.Solver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/** Benchmark that solves the same big puzzles with Sudoku.ParallelSolver on pools of 1 up to N threads
+ * and prints the time and the speedup over one thread
+ * The puzzles are made from a solved board: its numbers, rows and columns are shuffled (which keeps it solved)
+ * and then most of the boxes are emptied, with a fixed seed so that every run solves the same puzzles
+ *
+ * Arguments (all optional): size, number of puzzles, fraction of boxes that keep their number, highest thread count
+ * eg: java ParallelSolverBenchmark 25 8 0.5 8
+ */
+public class ParallelSolverBenchmark {
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 25;
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        double clues = args.length > 2 ? Double.parseDouble(args[2]) : 0.5;
+        int maxThreads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        int[][] solved = new ConstraintSolver().solve(new Board(size, false));
+        Random random = new Random(42);
+        List<Board> puzzles = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            puzzles.add(makePuzzle(shuffle(solved, random), clues, random));
+        }
+
+        double singleThread = 0;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            Solver solver = new ParallelSolver(pool);
+            for (Board puzzle : puzzles) { //warm up
+                solver.solve(puzzle);
+            }
+            long nodes = 0;
+            long start = System.nanoTime();
+            for (Board puzzle : puzzles) {
+                if (solver.solve(puzzle) == null) {
+                    System.err.println("a puzzle was not solved");
+                }
+                nodes += solver.getStatistics().getNodes();
+            }
+            double millis = (System.nanoTime() - start) / 1e6 / count;
+            if (threads == 1) {
+                singleThread = millis;
+            }
+            System.out.printf("%dx%d, %2d threads: %9.2f ms/puzzle %9d nodes/puzzle  speedup %.2f%n",
+                    size, size, threads, millis, nodes / count, singleThread / millis);
+            pool.shutdown();
+            if (threads < maxThreads && threads * 2 > maxThreads) {
+                threads = maxThreads / 2; //so that the last run uses all the threads
+            }
+        }
+    }
+
+    /** Shuffles a solved board without breaking it: the numbers are renamed, the rows inside every band
+     * and the bands themselves are reordered, and the same for the columns
+     */
+    private static int[][] shuffle(int[][] solved, Random random) {
+        int size = solved.length;
+        int sqrt = (int) Math.sqrt(size);
+        int[] numbers = permutation(size, random);
+        int[] rows = linePermutation(sqrt, random);
+        int[] columns = linePermutation(sqrt, random);
+        int[][] shuffled = new int[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                shuffled[i][j] = numbers[solved[rows[i]][columns[j]] - 1] + 1;
+            }
+        }
+        return shuffled;
+    }
+
+    private static int[] linePermutation(int sqrt, Random random) {
+        int[] bands = permutation(sqrt, random);
+        int[] lines = new int[sqrt * sqrt];
+        for (int band = 0; band < sqrt; band++) {
+            int[] inside = permutation(sqrt, random);
+            for (int k = 0; k < sqrt; k++) {
+                lines[band * sqrt + k] = bands[band] * sqrt + inside[k];
+            }
+        }
+        return lines;
+    }
+
+    private static int[] permutation(int n, Random random) {
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temp = result[i];
+            result[i] = result[j];
+            result[j] = temp;
+        }
+        return result;
+    }
+
+    private static Board makePuzzle(int[][] solved, double clues, Random random) {
+        int size = solved.length;
+        Board board = new Board(size, false);
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (random.nextDouble() < clues) {
+                    board.check(i, j, solved[i][j]);
+                }
+            }
+        }
+        return board;
+    }
+}
@@ -0,0 +1,86 @@
+import sudoku.Board;
+import sudoku.ClassicBoard;
+import sudoku.DancingLinksSolver;
+import sudoku.ParallelSolver;
+import sudoku.PuzzleGenerator;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+class ParallelSolverTest {
+
+    @Test
+    void solve() {
+        ParallelSolver solver = new ParallelSolver(new ForkJoinPool(4));
+        DancingLinksSolver other = new DancingLinksSolver();
+        for (int code = 1; code <= 10; code++) {
+            ClassicBoard board = new ClassicBoard(9, false, code);
+            if (code != 5) { //puzzle 5 has more than one solution, so the solvers may find different ones
+                Assert.assertArrayEquals(other.solve(board), solver.solve(board));
+            }
+        }
+        int[][] solution = solver.solve(new Board(25, false));
+        Board check = new Board(25, false);
+        for (int i = 0; i < 25; i++) {
+            for (int j = 0; j < 25; j++) {
+                Assert.assertEquals(0, check.check(i, j, solution[i][j]));
+            }
+        }
+    }
+
+    @Test
+    void solveAll() {
+        ParallelSolver solver = new ParallelSolver(new ForkJoinPool(4));
+        ClassicBoard board = new ClassicBoard(9, false, 5); //has 8 solutions
+        List<int[][]> all = solver.solveAll(board, 1000);
+        Assert.assertEquals(new DancingLinksSolver().solveAll(board, 1000).size(), all.size());
+        HashSet<String> different = new HashSet<>();
+        for (int[][] solution : all) {
+            StringBuilder text = new StringBuilder();
+            for (int[] row : solution) {
+                for (int number : row) {
+                    text.append(number);
+                }
+            }
+            different.add(text.toString());
+        }
+        Assert.assertEquals(all.size(), different.size()); //no solution is found twice
+        Assert.assertEquals(7, solver.solveAll(new Board(16, false), 7).size());
+    }
+
+    @Test
+    void solveManyBoardsWithOneSolver() {
+        ParallelSolver solver = new ParallelSolver(new ForkJoinPool(8));
+        int[][] puzzle = new PuzzleGenerator(7).generate(16);
+        ClassicBoard original = new ClassicBoard(16, false);
+        original.loadPuzzle(puzzle);
+        int[][] solution = new DancingLinksSolver().solve(original);
+        Random random = new Random(7);
+        for (int n = 0; n < 150; n++) {
+            //a search that stops while many tasks are running, and then a search of another board
+            Assert.assertEquals(3, solver.solveAll(new Board(16, false), 3).size());
+
+            int[] numbers = new int[17]; //the same puzzle with other numbers, so the solution is different
+            for (int i = 1; i <= 16; i++) {
+                int j = 1 + random.nextInt(i);
+                numbers[i] = numbers[j];
+                numbers[j] = i;
+            }
+            int[][] relabeled = new int[16][16];
+            int[][] expected = new int[16][16];
+            for (int i = 0; i < 16; i++) {
+                for (int j = 0; j < 16; j++) {
+                    relabeled[i][j] = numbers[puzzle[i][j]];
+                    expected[i][j] = numbers[solution[i][j]];
+                }
+            }
+            ClassicBoard board = new ClassicBoard(16, false);
+            board.loadPuzzle(relabeled);
+            Assert.assertArrayEquals(expected, solver.solve(board));
+        }
+    }
+}
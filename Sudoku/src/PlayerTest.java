@@ -1,13 +1,48 @@
 import org.junit.Assert;
 import sudoku.Player;
+import sudoku.PlayerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import java.util.HashSet;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 
 class PlayerTest {
     public PlayerTest(){
 
     }
 
+    /**
+     * A new file of players for every test, that is deleted after it with its log and the files of the compaction
+     */
+    private File file;
+    private File log;
+    private File compacting;
+
+    @BeforeEach
+    void createFile() throws IOException {
+        file = File.createTempFile("players", ".txt");
+        log = new File(file.getPath() + ".log");
+        compacting = new File(file.getPath() + ".compacting");
+    }
+
+    @AfterEach
+    void deleteFile() throws IOException {
+        //the repository of the file stays open, so it must not write or read the files after they are deleted
+        PlayerRepository.of(file.getPath()).setFlushInterval(60 * 60 * 1000);
+        file.delete();
+        log.delete();
+        compacting.delete();
+        new File(file.getPath() + ".lock").delete();
+    }
+
     @Test
     void getName() {
         Player nameTestEnglish= new Player("Alex");
@@ -51,15 +86,14 @@ class PlayerTest {
         fourClassics.addClassicSudoku(5);
         fourClassics.addClassicSudoku(7);
         fourClassics.addClassicSudoku(8);
-        HashSet<Integer> expectedSet= new HashSet<>();
-        expectedSet.add(1);
-        expectedSet.add(5);
-        expectedSet.add(7);
-        expectedSet.add(8);
-        Assert.assertEquals(expectedSet,fourClassics.getClassicSudokuGamesWon());
+        Assert.assertArrayEquals(new int[]{1, 5, 7, 8},fourClassics.getClassicSudokuGamesWon().toArray());
+        Assert.assertEquals(4,fourClassics.getClassicSudokuGamesWon().size());
+        Assert.assertTrue(fourClassics.getClassicSudokuGamesWon().contains(5));
+        Assert.assertFalse(fourClassics.getClassicSudokuGamesWon().contains(2));
+        fourClassics.addClassicSudoku(5);
+        Assert.assertEquals(4,fourClassics.getClassicSudokuGamesWon().size());
         Player emptySet= new Player("Chris");
-        expectedSet= new HashSet<>();
-        Assert.assertEquals(expectedSet,emptySet.getClassicSudokuGamesWon());
+        Assert.assertTrue(emptySet.getClassicSudokuGamesWon().isEmpty());
     }
 
     @Test
@@ -70,16 +104,10 @@ class PlayerTest {
         fiveKillers.addKillerSudoku(4);
         fiveKillers.addKillerSudoku(7);
         fiveKillers.addKillerSudoku(9);
-        HashSet<Integer> expectedSet= new HashSet<>();
-        expectedSet.add(1);
-        expectedSet.add(3);
-        expectedSet.add(4);
-        expectedSet.add(7);
-        expectedSet.add(9);
-        Assert.assertEquals(expectedSet,fiveKillers.getKillerSudokuGamesWon());
+        Assert.assertArrayEquals(new int[]{1, 3, 4, 7, 9},fiveKillers.getKillerSudokuGamesWon().toArray());
+        Assert.assertEquals(5,fiveKillers.getKillerSudokuGamesWon().size());
         Player emptySet= new Player();
-        expectedSet= new HashSet<>();
-        Assert.assertEquals(expectedSet,emptySet.getKillerSudokuGamesWon());
+        Assert.assertTrue(emptySet.getKillerSudokuGamesWon().isEmpty());
     }
 
     @Test
@@ -122,4 +150,238 @@ class PlayerTest {
         expected.addKillerSudoku(7);
         Assert.assertEquals(expected.toString(false),existingPlayer.toString(false));
     }
-}
\ No newline at end of file
+
+    @Test
+    void changePlayerFile() throws IOException {
+        Files.write(file.toPath(), Files.readAllBytes(new File("testPlayers.txt").toPath()));
+        PlayerRepository repository = PlayerRepository.of(file.getPath());
+        repository.setFlushInterval(60 * 60 * 1000);
+        Player player = new Player();
+        player.loginPlayer("Chris", file.getPath());
+        player.duidokuWon();
+        player.addClassicSudoku(9);
+        player.changePlayerFile(file.getPath());
+        player.addKillerSudoku(1);
+        player.changePlayerFile(file.getPath());
+        Assert.assertEquals(3, repository.getPendingWrites());
+        Assert.assertFalse(log.exists()); //nothing is written before the flush
+        repository.flush();
+        Assert.assertEquals(0, repository.getPendingWrites());
+        Assert.assertEquals(1, repository.getFlushCount());
+        Assert.assertEquals(3, Files.readAllLines(log.toPath()).size());
+        Assert.assertArrayEquals(Files.readAllBytes(new File("testPlayers.txt").toPath()),
+                Files.readAllBytes(file.toPath())); //only the log has changed
+
+        Player loaded = new Player();
+        loaded.loginPlayer("Chris", file.getPath());
+        Assert.assertEquals(player.toString(false), loaded.toString(false));
+        Assert.assertEquals(3, loaded.getDuidokuWins());
+        Assert.assertArrayEquals(new int[]{1, 4, 6, 9}, loaded.getClassicSudokuGamesWon().toArray());
+        Assert.assertArrayEquals(new int[]{1, 4, 7}, loaded.getKillerSudokuGamesWon().toArray());
+
+        Player anonymous = new Player();
+        anonymous.duidokuLost();
+        anonymous.changePlayerFile(file.getPath());
+        loaded.loginPlayer("unknown", file.getPath());
+        Assert.assertEquals(0, loaded.getDuidokuLoses());
+        Assert.assertEquals(0, repository.getPendingWrites());
+    }
+
+    @Test
+    void loginPlayerWithSimilarNames() throws IOException {
+        Files.write(file.toPath(), "Alex,3,5,1 5 7 8 ,2 3 6 7 8\nAl,1,0,0,0\n".getBytes());
+        Player player = new Player();
+        player.loginPlayer("Al", file.getPath());
+        Assert.assertEquals(1, player.getDuidokuWins());
+        Assert.assertTrue(player.getClassicSudokuGamesWon().isEmpty());
+        player.loginPlayer("Alex", file.getPath());
+        Assert.assertEquals(3, player.getDuidokuWins());
+        Assert.assertArrayEquals(new int[]{2, 3, 6, 7, 8}, player.getKillerSudokuGamesWon().toArray());
+        player.loginPlayer("A", file.getPath());
+        Assert.assertEquals(0, player.getDuidokuWins());
+    }
+
+    @Test
+    void loginPlayerWithGreekName() throws IOException {
+        Files.write(file.toPath(), "Αλέξανδρος,2,1,3 ,0\n".getBytes(StandardCharsets.UTF_8));
+        Player player = new Player();
+        player.loginPlayer("Αλέξανδρος", file.getPath());
+        Assert.assertEquals(2, player.getDuidokuWins());
+        player.addKillerSudoku(5);
+        player.changePlayerFile(file.getPath());
+        PlayerRepository.of(file.getPath()).flush();
+        Assert.assertEquals("Αλέξανδρος,K,5", Files.readAllLines(log.toPath(), StandardCharsets.UTF_8).get(0));
+
+        Player loaded = new Player();
+        loaded.loginPlayer("Αλέξανδρος", file.getPath());
+        Assert.assertArrayEquals(new int[]{3}, loaded.getClassicSudokuGamesWon().toArray());
+        Assert.assertArrayEquals(new int[]{5}, loaded.getKillerSudokuGamesWon().toArray());
+    }
+
+    @Test
+    void changePlayerFileFromManyThreads() throws IOException, InterruptedException {
+        PlayerRepository repository = PlayerRepository.of(file.getPath());
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            String name = "Player" + i;
+            threads[i] = new Thread(() -> {
+                Player player = new Player();
+                player.loginPlayer(name, file.getPath());
+                for (int code = 1; code <= 100; code++) {
+                    player.duidokuWon();
+                    player.addClassicSudoku(code);
+                    player.changePlayerFile(file.getPath());
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        repository.flush();
+        Assert.assertEquals(0, repository.getPendingWrites());
+        Assert.assertEquals(800, Files.readAllLines(log.toPath()).size());
+
+        //another program adds a change at the end of the log, that is read by the next flush
+        Files.write(log.toPath(), ("Player0,L,3" + System.lineSeparator()).getBytes(),
+                StandardOpenOption.APPEND);
+        repository.flush();
+        for (int i = 0; i < threads.length; i++) {
+            Player player = new Player();
+            player.loginPlayer("Player" + i, file.getPath());
+            Assert.assertEquals(100, player.getDuidokuWins());
+            Assert.assertEquals(100, player.getClassicSudokuGamesWon().size());
+            Assert.assertEquals(i == 0 ? 3 : 0, player.getDuidokuLoses());
+        }
+    }
+
+    @Test
+    void compact() throws IOException {
+        Files.write(file.toPath(), "Chris,2,1,1 4 6,4 7\nAlex,3,5,1 5 7 8 ,2 3 6 7 8\n".getBytes());
+        PlayerRepository repository = PlayerRepository.of(file.getPath());
+        repository.setFlushInterval(60 * 60 * 1000);
+        Player player = new Player();
+        player.loginPlayer("Chris", file.getPath());
+        player.duidokuWon();
+        player.addClassicSudoku(9);
+        player.changePlayerFile(file.getPath());
+        Player newPlayer = new Player();
+        newPlayer.loginPlayer("Maria", file.getPath());
+        newPlayer.duidokuLost();
+        newPlayer.changePlayerFile(file.getPath());
+        repository.compact();
+
+        Assert.assertFalse(log.exists());
+        Assert.assertFalse(compacting.exists());
+        Assert.assertEquals(Arrays.asList("Chris,3,1,1 4 6 9 ,4 7 ", "Alex,3,5,1 5 7 8 ,2 3 6 7 8", "Maria,0,1,0,0"),
+                Files.readAllLines(file.toPath()));
+        Player loaded = new Player();
+        loaded.loginPlayer("Chris", file.getPath());
+        Assert.assertEquals(player.toString(false), loaded.toString(false));
+    }
+
+    @Test
+    void compactAfterStoppedCompaction() throws IOException {
+        //a compaction stopped after it renamed the log, and another log was started after it
+        Files.write(file.toPath(), "Chris,2,1,1 4 6,4 7\n".getBytes());
+        Files.write(compacting.toPath(), "Chris,W,3\nChris,C,9\nMaria,K,2\n".getBytes());
+        Files.write(log.toPath(), "Chris,L,2\n".getBytes());
+        PlayerRepository repository = PlayerRepository.of(file.getPath());
+        repository.setFlushInterval(60 * 60 * 1000);
+        Player player = new Player();
+        player.loginPlayer("Chris", file.getPath());
+        Assert.assertEquals(3, player.getDuidokuWins());
+        Assert.assertEquals(2, player.getDuidokuLoses());
+        Assert.assertArrayEquals(new int[]{1, 4, 6, 9}, player.getClassicSudokuGamesWon().toArray());
+
+        repository.compact(); //only the changes of the stopped compaction go in the snapshot
+        Assert.assertFalse(compacting.exists());
+        Assert.assertTrue(log.exists());
+        Assert.assertEquals(Arrays.asList("Chris,3,1,1 4 6 9 ,4 7 ", "Maria,0,0,0,2 "),
+                Files.readAllLines(file.toPath()));
+
+        repository.compact();
+        Assert.assertFalse(log.exists());
+        Assert.assertEquals(Arrays.asList("Chris,3,2,1 4 6 9 ,4 7 ", "Maria,0,0,0,2 "),
+                Files.readAllLines(file.toPath()));
+    }
+
+    @Test
+    void compactBigLog() throws IOException, InterruptedException {
+        PlayerRepository repository = PlayerRepository.of(file.getPath());
+        repository.setFlushInterval(60 * 60 * 1000);
+        Player player = new Player();
+        player.loginPlayer("Chris", file.getPath());
+        for (int code = 1; code <= 10000; code++) {
+            player.addClassicSudoku(code);
+        }
+        player.changePlayerFile(file.getPath());
+        repository.flush(); //the log gets bigger than 64 KB, so it is compacted in the background
+        for (int i = 0; i < 100 && (log.exists() || file.length() == 0); i++) {
+            Thread.sleep(100);
+        }
+        Assert.assertFalse(log.exists());
+        Assert.assertTrue(Files.readAllLines(file.toPath()).get(0).startsWith("Chris,0,0,1 2 3 "));
+
+        repository.flush(); //the compaction is found and the files are read again
+        Player loaded = new Player();
+        loaded.loginPlayer("Chris", file.getPath());
+        Assert.assertEquals(10000, loaded.getClassicSudokuGamesWon().size());
+    }
+
+    @Test
+    void compactWithWrongLine() throws IOException {
+        Files.write(file.toPath(), "Chris,2,x,1 4 6,4 7\nAlex,3,5,1 5 7 8 ,2 3 6 7 8\n".getBytes());
+        Files.write(log.toPath(), "Chris,W,5\nAlex,W,4\n".getBytes());
+        PlayerRepository repository = PlayerRepository.of(file.getPath());
+        repository.setFlushInterval(60 * 60 * 1000);
+        repository.compact();
+
+        //the stats of Chris are kept as they were stored, instead of being counted from zero
+        Assert.assertEquals(Arrays.asList("Chris,2,x,1 4 6,4 7", "Alex,4,5,1 5 7 8 ,2 3 6 7 8 "),
+                Files.readAllLines(file.toPath()));
+    }
+
+    @Test
+    void changePlayerFileFromTwoPrograms() throws IOException, InterruptedException, URISyntaxException {
+        Files.write(file.toPath(), "Chris,2,1,0,0\n".getBytes());
+        String classPath = String.join(File.pathSeparator, locationOf(PlayerTest.class),
+                locationOf(Player.class), locationOf(Assert.class));
+        Process other = new ProcessBuilder(Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", classPath, "PlayerTest", file.getPath(), "1001").inheritIO().start();
+        main(new String[]{file.getPath(), "1"}); //both programs log in with 2 wins and win 200 more
+        Assert.assertEquals(0, other.waitFor());
+
+        PlayerRepository.of(file.getPath()).flush();
+        Player player = new Player();
+        player.loginPlayer("Chris", file.getPath());
+        Assert.assertEquals(402, player.getDuidokuWins());
+        Assert.assertEquals(201, player.getDuidokuLoses());
+        Assert.assertEquals(400, player.getClassicSudokuGamesWon().size());
+    }
+
+    /** The other program of changePlayerFileFromTwoPrograms: wins 200 games as Chris, writing often
+     *
+     * @param args the name of the file of players and the code of the first classic that is won
+     */
+    public static void main(String[] args) throws IOException {
+        PlayerRepository repository = PlayerRepository.of(args[0]);
+        repository.setFlushInterval(2);
+        Player player = new Player();
+        player.loginPlayer("Chris", args[0]);
+        int first = Integer.parseInt(args[1]);
+        for (int i = 0; i < 200; i++) {
+            player.duidokuWon();
+            player.addClassicSudoku(first + i);
+            if (i % 2 == 0) {
+                player.duidokuLost();
+            }
+            player.changePlayerFile(args[0]);
+        }
+        repository.flush();
+    }
+
+    private static String locationOf(Class<?> type) throws URISyntaxException {
+        return Paths.get(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+    }
+}
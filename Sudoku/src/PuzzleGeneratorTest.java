@@ -0,0 +1,49 @@
+import sudoku.Board;
+import sudoku.ClassicBoard;
+import sudoku.PuzzleGenerator;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+class PuzzleGeneratorTest {
+
+    @Test
+    void generateSolution() {
+        PuzzleGenerator generator = new PuzzleGenerator(1);
+        for (int size : new int[]{4, 9, 16}) {
+            int[][] solution = generator.generateSolution(size);
+            Board check = new Board(size, false);
+            for (int i = 0; i < size; i++) {
+                for (int j = 0; j < size; j++) {
+                    Assert.assertEquals(0, check.check(i, j, solution[i][j])); //every number follows the rules
+                }
+            }
+        }
+    }
+
+    @Test
+    void generate() {
+        PuzzleGenerator generator = new PuzzleGenerator(2);
+        for (int i = 0; i < 20; i++) {
+            ClassicBoard board = new ClassicBoard(9, false);
+            board.loadPuzzle(generator.generate(9));
+            Assert.assertTrue(board.hasUniqueSolution());
+            Assert.assertEquals(0, board.getCode());
+        }
+        ClassicBoard board = new ClassicBoard(16, false);
+        board.loadPuzzle(generator.generate(16, 120));
+        Assert.assertTrue(board.hasUniqueSolution());
+        try {
+            generator.generate(10);
+            Assert.fail("10 is not a perfect square");
+        } catch (IllegalArgumentException exc) {
+            //expected
+        }
+    }
+
+    @Test
+    void generateBoard() {
+        ClassicBoard board = new PuzzleGenerator().generateBoard(9, true);
+        Assert.assertTrue(board.hasUniqueSolution());
+        Assert.assertTrue(board.isWordoku());
+    }
+}
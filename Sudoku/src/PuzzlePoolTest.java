@@ -0,0 +1,37 @@
+import sudoku.ClassicBoard;
+import sudoku.Difficulty;
+import sudoku.PuzzlePool;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+class PuzzlePoolTest {
+
+    @Test
+    void take() throws InterruptedException {
+        PuzzlePool pool = new PuzzlePool(2, 1);
+        pool.prepare(9, Difficulty.EASY);
+        for (int i = 0; i < 100 && pool.getDepth(9, Difficulty.EASY) < 2; i++) {
+            Thread.sleep(20);
+        }
+        Assert.assertEquals(2, pool.getDepth(9, Difficulty.EASY));
+        Assert.assertTrue(pool.getAverageRefillMillis(9, Difficulty.EASY) > 0);
+
+        ClassicBoard board = new ClassicBoard(9, false);
+        board.loadPuzzle(pool.take(9, Difficulty.EASY));
+        Assert.assertTrue(board.hasUniqueSolution());
+        Assert.assertEquals(1, pool.getHits(9, Difficulty.EASY));
+        Assert.assertEquals(0, pool.getMisses(9, Difficulty.EASY));
+        pool.shutdown();
+    }
+
+    @Test
+    void takeAfterShutdown() {
+        PuzzlePool pool = new PuzzlePool(1, 1);
+        pool.shutdown();
+        ClassicBoard board = new ClassicBoard(4, false);
+        board.loadPuzzle(pool.take(4, Difficulty.HARD)); //nothing is ready, so it is generated right away
+        Assert.assertTrue(board.hasUniqueSolution());
+        Assert.assertEquals(1, pool.getMisses(4, Difficulty.HARD));
+        Assert.assertEquals(0, pool.getDepth(4, Difficulty.HARD));
+    }
+}
@@ -0,0 +1,81 @@
+import sudoku.ClassicBoard;
+import sudoku.KillerBoard;
+import sudoku.PuzzleStore;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+class PuzzleStoreTest {
+
+    @Test
+    void convertClassic() throws IOException {
+        File file = File.createTempFile("classic", PuzzleStore.EXTENSION);
+        try {
+            Assert.assertEquals(10, PuzzleStore.convert("Classic Sudoku Puzzles.txt", file.getPath(), false));
+            PuzzleStore store = PuzzleStore.of(file.getPath());
+            Assert.assertEquals(9, store.getSize());
+            Assert.assertFalse(store.isKiller());
+            Assert.assertArrayEquals(new int[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10}, store.getCodes());
+            for (int code = 1; code <= 10; code++) {
+                ClassicBoard text = new ClassicBoard(9, false, code);
+                ClassicBoard binary = new ClassicBoard(9, false, 10, code, file.getPath());
+                for (int i = 0; i < 9; i++) {
+                    for (int j = 0; j < 9; j++) {
+                        Assert.assertEquals(text.getNumber(i, j), binary.getNumber(i, j));
+                    }
+                }
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    void convertKiller() throws IOException {
+        File file = File.createTempFile("killer", PuzzleStore.EXTENSION);
+        try {
+            Assert.assertEquals(10, PuzzleStore.convert("Killer Sudoku Puzzles.txt", file.getPath(), true));
+            Assert.assertTrue(PuzzleStore.of(file.getPath()).isKiller());
+            for (int code = 1; code <= 10; code++) {
+                KillerBoard text = new KillerBoard(false, code);
+                KillerBoard binary = new KillerBoard(9, 10, false, code, file.getPath());
+                for (int color = 1; ; color++) {
+                    int sum;
+                    try {
+                        sum = text.getColorSum(color);
+                    } catch (IllegalArgumentException exc) {
+                        break; //no more color codes
+                    }
+                    Assert.assertEquals(sum, binary.getColorSum(color));
+                }
+            }
+            Assert.assertTrue(new KillerBoard(9, 10, false, 1, file.getPath()).hasUniqueSolution());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    void convertNumberOutOfRange() throws IOException {
+        File text = File.createTempFile("classic", ".txt");
+        File file = File.createTempFile("classic", PuzzleStore.EXTENSION);
+        try {
+            //17 does not fit in the bits of a 9x9 cell, it must not be stored as 1
+            Files.write(text.toPath(), ("1 19\n0 0 0 0 1 0 6 0 9\n1 3 0 0 5 6 0 7 0\n9 8 0 0 2 7 0 1 0\n" +
+                    "8 0 0 0 7 1 0 0 0\n2 1 0 0 0 0 0 5 7\n0 0 0 2 8 0 0 0 4\n0 2 0 1 6 0 0 4 3\n" +
+                    "0 6 0 5 9 0 0 8 2\n5 0 8 0 3 0 0 0 17\n").getBytes());
+            try {
+                PuzzleStore.convert(text.getPath(), file.getPath(), false);
+                Assert.fail("17 is not a number of a 9x9 puzzle");
+            } catch (NumberFormatException exc) {
+                //expected
+            }
+        } finally {
+            text.delete();
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+import sudoku.BacktrackingSolver;
+import sudoku.ClassicBoard;
+import sudoku.ConstraintSolver;
+import sudoku.DancingLinksSolver;
+import sudoku.Solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/** Benchmark that solves every puzzle of a classic puzzle file with each solver and prints
+ * the average time per puzzle. Every solver is run a few rounds first so that the JIT has warmed up
+ * and the solutions of all the solvers are compared with each other
+ *
+ * Arguments (all optional): file name, number of puzzles in the file, rounds
+ * eg: java SolverBenchmark "Classic Sudoku Puzzles.txt" 10 20
+ */
+public class SolverBenchmark {
+    public static void main(String[] args) {
+        String fileName = args.length > 0 ? args[0] : "Classic Sudoku Puzzles.txt";
+        int puzzles = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        List<ClassicBoard> boards = new ArrayList<>();
+        for (int code = 1; code <= puzzles; code++) {
+            boards.add(new ClassicBoard(9, false, puzzles, code, fileName));
+        }
+        Solver[] solvers = {new DancingLinksSolver(), new ConstraintSolver(), new BacktrackingSolver()};
+        int[][][] reference = new int[puzzles][][];
+
+        for (Solver solver : solvers) {
+            for (int round = 0; round < rounds; round++) { //warm up
+                for (ClassicBoard board : boards) {
+                    solver.solve(board);
+                }
+            }
+            long nodes = 0;
+            long start = System.nanoTime();
+            for (int round = 0; round < rounds; round++) {
+                for (int i = 0; i < puzzles; i++) {
+                    int[][] solution = solver.solve(boards.get(i));
+                    nodes += solver.getStatistics().getNodes();
+                    if (reference[i] == null) {
+                        reference[i] = solution;
+                    } else if (!Arrays.deepEquals(reference[i], solution)) {
+                        System.err.println(solver.getClass().getSimpleName() + " disagrees on puzzle " + (i + 1));
+                    }
+                }
+            }
+            double perPuzzle = (System.nanoTime() - start) / 1e6 / rounds / puzzles;
+            System.out.printf("%-20s %10.4f ms/puzzle %12d nodes/puzzle%n", solver.getClass().getSimpleName(),
+                    perPuzzle, nodes / rounds / puzzles);
+        }
+    }
+}
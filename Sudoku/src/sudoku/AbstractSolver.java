@@ -0,0 +1,120 @@
+package sudoku;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**@author Alexandros Stergiopoulos & Christos Christidis
+ *
+ * The class Sudoku.AbstractSolver is the mother class of the solvers
+ * It does what every solver needs before and after the search: it checks the size of the board,
+ * copies the numbers of the board in a flat array (box x,y in position x*size+y, 0 for empty),
+ * rejects boards where the given numbers already break a rule, times the search and keeps the statistics
+ * The subclasses only implement the search itself
+ *
+ */
+abstract class AbstractSolver implements Solver {
+    SolverStatistics statistics = new SolverStatistics();
+
+    /** Finds the first solution, it is solveAll with limit 1
+     *
+     * @param board the board with the numbers that are already given
+     * @return the solved board or null if the board has no solution
+     */
+    @Override
+    public int[][] solve(Board board) {
+        List<int[][]> solutions = solveAll(board, 1);
+        return solutions.isEmpty() ? null : solutions.get(0);
+    }
+
+    /** Prepares the search, calls the search of the subclass and keeps the statistics
+     *
+     * @throws IllegalArgumentException if the size of the board is not a perfect square or the limit isn't positive
+     * @param board the board with the numbers that are already given
+     * @param limit the most solutions that will be returned
+     * @return a list with the solutions found
+     */
+    @Override
+    public List<int[][]> solveAll(Board board, int limit) {
+        if (!board.geometry.isSquare()) {
+            throw new IllegalArgumentException("size of board must be a perfect square");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        statistics = new SolverStatistics();
+        long start = System.nanoTime();
+        List<int[][]> solutions = new ArrayList<>();
+        int[] grid = new int[board.geometry.numberOfBoxes];
+        for (int box = 0; box < grid.length; box++) {
+            grid[box] = board.boxes[box];
+        }
+        if (givenNumbersAreLegal(board.geometry, grid)) {
+            search(board, grid, limit, solutions);
+        }
+        statistics.finish(solutions.size(), System.nanoTime() - start);
+        return solutions;
+    }
+
+    /** Getter for statistics
+     *
+     * @return the statistics of the last search
+     */
+    @Override
+    public SolverStatistics getStatistics() {
+        return statistics;
+    }
+
+    /** The search of the specific solver
+     * It must add every solution it finds in the list (with toSquareArray) and stop when the list has limit solutions
+     *
+     * @param board the board that is solved, for solvers that need more than the numbers (eg the cages of killer)
+     * @param grid the numbers of the board in a flat array, the search may change it
+     * @param limit the most solutions that must be found
+     * @param solutions the list where the solutions are added
+     */
+    abstract void search(Board board, int[] grid, int limit, List<int[][]> solutions);
+
+    /** Checks that no number is given twice in a row, column or block
+     * A loaded board doesn't go through check, so a puzzle file with a mistake could have such numbers
+     *
+     * @param geometry the geometry of the board
+     * @param grid the numbers of the board in a flat array
+     * @return if the given numbers follow the rules or not
+     */
+    static boolean givenNumbersAreLegal(BoardGeometry geometry, int[] grid) {
+        long[] rows = new long[geometry.size];
+        long[] columns = new long[geometry.size];
+        long[] blocks = new long[geometry.blockBoxes.length];
+        for (int box = 0; box < grid.length; box++) {
+            if (grid[box] == 0) {
+                continue;
+            }
+            if (grid[box] < 0 || grid[box] > geometry.size) {
+                return false;
+            }
+            long bit = Board.bit(grid[box]);
+            int row = geometry.rowOf[box], column = geometry.columnOf[box], block = geometry.blockOf[box];
+            if (((rows[row] | columns[column] | blocks[block]) & bit) != 0) {
+                return false;
+            }
+            rows[row] |= bit;
+            columns[column] |= bit;
+            blocks[block] |= bit;
+        }
+        return true;
+    }
+
+    /** Converts a flat array of numbers to a two dimensioned one
+     *
+     * @param grid the numbers in a flat array
+     * @param size the size of the board
+     * @return the numbers in a two dimensioned array
+     */
+    static int[][] toSquareArray(int[] grid, int size) {
+        int[][] square = new int[size][size];
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(grid, i * size, square[i], 0, size);
+        }
+        return square;
+    }
+}
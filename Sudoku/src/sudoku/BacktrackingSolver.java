@@ -0,0 +1,75 @@
+package sudoku;
+
+import java.util.List;
+
+/**@author Alexandros Stergiopoulos & Christos Christidis
+ *
+ * The class Sudoku.BacktrackingSolver solves a board the way a player without any technique would:
+ * it goes to the first empty box, tries the numbers from 1 to size with the method check of Sudoku.Board
+ * and when no number fits, it deletes the last move and tries the next number there
+ * It plays on an empty copy of the board, so it follows all the rules of the board, even the extra ones of killer
+ * It is the simplest solver and it is kept mostly to compare the other solvers with it
+ *
+ */
+public class BacktrackingSolver extends AbstractSolver {
+    private Board workBoard;
+    private int limit;
+    private List<int[][]> solutions;
+    private long nodes;
+
+    /** Copies the given numbers on a new board and tries every number in every empty box
+     *
+     * @param board the board that is solved
+     * @param grid the numbers of the board in a flat array
+     * @param limit the most solutions that must be found
+     * @param solutions the list where the solutions are added
+     */
+    @Override
+    void search(Board board, int[] grid, int limit, List<int[][]> solutions) {
+        this.limit = limit;
+        this.solutions = solutions;
+        nodes = 0;
+        workBoard = board.emptyCopy(); //a killer board keeps its cages, so check follows their rule too
+        for (int box = 0; box < grid.length; box++) {
+            if (grid[box] != 0) {
+                workBoard.place(workBoard.geometry.rowOf[box], workBoard.geometry.columnOf[box], grid[box]);
+            }
+        }
+        search(0);
+        statistics.addNodes(nodes);
+        workBoard = null;
+        this.solutions = null;
+    }
+
+    /** Finds the next empty box after the box "from" and tries all the numbers on it
+     *
+     * @param from the box where the search for an empty box begins
+     * @return true when enough solutions have been found and the search must stop
+     */
+    private boolean search(int from) {
+        int size = workBoard.getSize();
+        int box = from;
+        while (box < workBoard.boxes.length && workBoard.boxes[box] != 0) {
+            box++;
+        }
+        if (box == workBoard.boxes.length) {
+            int[] solution = new int[box];
+            for (int i = 0; i < box; i++) {
+                solution[i] = workBoard.boxes[i];
+            }
+            solutions.add(toSquareArray(solution, size));
+            return solutions.size() >= limit;
+        }
+        int x = box / size, y = box % size;
+        for (int number = 1; number <= size; number++) {
+            nodes++;
+            if (workBoard.check(x, y, number) == 0) {
+                if (search(box + 1)) {
+                    return true;
+                }
+                workBoard.delete(x, y);
+            }
+        }
+        return false;
+    }
+}
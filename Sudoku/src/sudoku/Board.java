@@ -15,17 +15,36 @@ import java.util.HashSet;
  */
 public  class Board {
     /**
-     * two dimensioned int array that stores the board (must be same dimensions?)
-     * Note that all the fields are protected so that a class that inherits this one
-     * can have direct access to them
+     * flat byte array that stores the board row after row, so the box x,y is in position x*size+y
+     * A number never gets bigger than the size (at most 64), so a byte is enough for every box
+     * The geometry has the tables with the row, column and block of every box and is shared
+     * by all the boards of the same size
+     * Note that the fields are package private so that a class that inherits this one
+     * can have direct access to them, but the other classes use getNumber
      */
-    int[][] sudokuBoard;
+    byte[] boxes;
+    final BoardGeometry geometry;
 
     /**
      * the size of row/column and the square root of it as it is used frequently
      */
     int sizeOfBlock;
-    private int sqrtSizeOfBlock;
+    int sqrtSizeOfBlock;
+
+    /**
+     * how many boxes have a number in them, kept up to date by place and delete so that
+     * finished doesn't have to scan the board
+     */
+    private int filledBoxes;
+
+    /**
+     * occupancy bitmasks for every row, column and block, kept up to date by place and delete
+     * bit (number-1) is set when the number is already used, so a check is a single AND
+     * and the candidates of a position are the complement of three masks
+     */
+    private long[] rowMasks;
+    private long[] columnMasks;
+    private long[] blockMasks;
 
     /**
      * boolean field to determine if the board will be filled with numbers or letters(wordoku)
@@ -37,24 +56,19 @@ public  class Board {
     /** General constructor
      * sets the parameters to the fields and initializes the array on 0
      *
-     * @throws IllegalArgumentException for negative size of array
+     * @throws IllegalArgumentException for negative size of array or size greater than 64 (the bitmasks are longs)
      * @param size the size of the board (usually 9)
      * @param wordoku boolean value to determine if the board will be wordoku or not
      */
     public Board(int size, boolean wordoku){
-        if(size<1) {
-            throw new IllegalArgumentException("size must be positive");
-        }
+        geometry=BoardGeometry.of(size);
         this.wordoku=wordoku;
         sizeOfBlock=size;
-        sqrtSizeOfBlock=(int)Math.sqrt(size);
-        sudokuBoard= new int[size][size];
-        for(int i=0;i<size;i++){
-            for(int j=0;j<size;j++){
-                sudokuBoard[i][j] = 0; //initialization to 0 to distinguish an empty spot
-            }
-        }
-
+        sqrtSizeOfBlock=geometry.sqrtSize;
+        boxes= new byte[geometry.numberOfBoxes]; //a new array is already 0, which is an empty spot
+        rowMasks= new long[size];
+        columnMasks= new long[size];
+        blockMasks= new long[geometry.blockBoxes.length];
     }
 
     /**Constructor for default classic 9x9 board (not wordoku)
@@ -80,6 +94,30 @@ public  class Board {
         return sizeOfBlock;
     }
 
+    /** Getter for the number in position x,y
+     *
+     * @throws ArrayIndexOutOfBoundsException if x or y are out of the board
+     * @param x number of row
+     * @param y number of column
+     * @return the number in the box or 0 if the box is empty
+     */
+    public int getNumber(int x, int y){
+        if(x<0 || x>=sizeOfBlock || y<0 || y>=sizeOfBlock){
+            throw new ArrayIndexOutOfBoundsException("no box " + x + "," + y + " on the board");
+        }
+        return boxes[geometry.box(x, y)];
+    }
+
+    /** Tells if the position x,y doesn't have a number yet
+     *
+     * @param x number of row
+     * @param y number of column
+     * @return if the box is empty or not
+     */
+    public boolean isEmpty(int x, int y){
+        return getNumber(x, y) == 0;
+    }
+
     /** Number to char Converter
      * Converts the numbers 1-9 (for size=9) to the letters A-I
      * using the unicode of the letters and numbers
@@ -170,27 +208,23 @@ public  class Board {
      *
      */
     public  int check(int x, int y, int number) {
-        try {
-            if(number>sizeOfBlock || number<1)
-                return -1;
-            if (!checkRow(x, number))  {
-                return 1;
-            } else if (!checkColumn(y, number)) {
-                return 2;
-            } else if(!checkBlock(x, y, number)) {
-                return 3;
-            } else {
-                place(x, y, number);
-                return 0;
-            }
-        } catch (ArrayIndexOutOfBoundsException exc){
+        if(number>sizeOfBlock || number<1 || x<0 || x>=sizeOfBlock || y<0 || y>=sizeOfBlock)
             return -1;
+        if (!checkRow(x, number))  {
+            return 1;
+        } else if (!checkColumn(y, number)) {
+            return 2;
+        } else if(!checkBlock(x, y, number)) {
+            return 3;
+        } else {
+            place(x, y, number);
+            return 0;
         }
     }
 
     /** Checks if a move would break the rule of the row
      * The method checks if the same number is already put in the row
-     * the player wants to put their number
+     * the player wants to put their number, by looking at the bit of the number in the row mask
      * Private because only check can call it
      *
      * @param x number of row
@@ -198,17 +232,12 @@ public  class Board {
      * @return if the move can be made or not
      */
     private boolean checkRow(int x, int number){
-        for (int i=0;i<sizeOfBlock;i++) {
-            if (sudokuBoard[x][i] == number) {
-                return false;
-            }
-        }
-        return true;
+        return (rowMasks[x] & bit(number)) == 0;
     }
 
     /** Checks if a move would break the rule of the column
      * The method checks if the same number is already put in the column
-     * the player wants to put their number
+     * the player wants to put their number, by looking at the bit of the number in the column mask
      * Private because only check can call it
      *
      * @param y number of column
@@ -216,17 +245,12 @@ public  class Board {
      * @return if the move can be made or not
      */
     private boolean checkColumn(int y, int number){
-        for (int i=0;i<sizeOfBlock;i++) {
-            if (sudokuBoard[i][y] == number) {
-                return false;
-            }
-        }
-        return true;
+        return (columnMasks[y] & bit(number)) == 0;
     }
 
     /** Checks if a move would break the rule of the block
-     * Firstly, it tracks the first box of the small block the player wants to put the number
-     * then it scans the small block to check if the number is already in one of the boxes
+     * The block of the position is found from the table of the geometry and its mask tells
+     * if the number is already in one of the boxes
      * Private because only check can call it
      *
      * @param x number of row
@@ -235,28 +259,37 @@ public  class Board {
      * @return if the move can be made of not
      */
     private boolean checkBlock(int x, int y, int number){
-        int blockX, blockY;
-        blockX = x - (x %sqrtSizeOfBlock);
-        blockY = y - (y % sqrtSizeOfBlock);
-        for (int i = 0; i <sqrtSizeOfBlock; i++ ) {
-            for (int j = 0; j <sqrtSizeOfBlock; j++) {
-                if (sudokuBoard[blockX+i][blockY + j] == number) {
-                    return false;
-                }
-            }
-        }
-        return true;
+        return (blockMasks[geometry.blockOf[geometry.box(x, y)]] & bit(number)) == 0;
     }
 
-    /** Places the number in the box in position x,y
-     * Private because only check can call it
+    /** The bit that stands for a number in the row, column and block masks
+     *
+     * @param number a number from 1 to sizeOfBlock
+     * @return the mask with only the bit of the number set
+     */
+    static long bit(int number){
+        return 1L << (number - 1);
+    }
+
+    /** Places the number in the box in position x,y and marks it as used in the row, column and block
+     * If there was already a number in the box, it is removed from the masks first
+     * Package private so that loading a board goes through it too and the masks stay correct
      *
      * @param x number of row
      * @param y number of column
      * @param number number the player wants to put
      */
-    private void place(int x, int y, int number){
-        sudokuBoard[x][y] = number;
+    void place(int x, int y, int number){
+        int box=geometry.box(x, y);
+        if(boxes[box]!=0){
+            delete(x, y);
+        }
+        long numberBit=bit(number);
+        rowMasks[x] |= numberBit;
+        columnMasks[y] |= numberBit;
+        blockMasks[geometry.blockOf[box]] |= numberBit;
+        boxes[box] = (byte) number;
+        filledBoxes++;
     }
 
     /** Deletes the number that was put on the position x,y
@@ -266,28 +299,32 @@ public  class Board {
      * @param y number of column
      */
     void delete(int x, int y){
-        sudokuBoard[x][y]=0;
+        int box=geometry.box(x, y);
+        int number=boxes[box];
+        if(number==0){
+            return;
+        }
+        long numberBit=bit(number);
+        rowMasks[x] &= ~numberBit;
+        columnMasks[y] &= ~numberBit;
+        blockMasks[geometry.blockOf[box]] &= ~numberBit;
+        boxes[box]=0;
+        filledBoxes--;
     }
 
-    /**Checks all the positions in the board and if they are filled with a number, then the puzzle
+    /**Checks if all the positions in the board are filled with a number, and then the puzzle
      * is solved
      * If even one spot has a zero in it, then the game is not finished yet
+     * The filled boxes are counted by place and delete, so this takes constant time
      *
      * @return if the game if finished or not
      */
     public  boolean finished(){
-        for(int i=0;i<sizeOfBlock;i++){
-            for(int j=0;j<sizeOfBlock;j++){
-                if(sudokuBoard[i][j]==0){
-                    return false;
-                }
-            }
-        }
-        return true;
+        return filledBoxes == sizeOfBlock * sizeOfBlock;
     }
 
-    /** Checks all the numbers in the position x,y and if they can be legally placed , they are
-     * added in a HashSet
+    /** Finds all the numbers that can be legally placed in the position x,y and adds them in a HashSet
+     * Thin adapter over hintMask for the GUI, which likes to iterate over the numbers
      *
      * @param x the number of row
      * @param y the number of column
@@ -295,11 +332,35 @@ public  class Board {
      */
     public  HashSet<Integer> hint(int x, int y){
         HashSet<Integer> hintNumbers= new HashSet<>();
+        long candidates= hintMask(x, y);
         for(int i=1;i<=sizeOfBlock;i++){
-            if (checkRow(x, i) && checkColumn(y, i) && checkBlock(x,y,i)){
+            if ((candidates & bit(i)) != 0){
                 hintNumbers.add(i);
             }
         }
         return hintNumbers;
     }
+
+    /** Finds all the numbers that can be legally placed in the position x,y without allocating anything
+     * The numbers are the ones that are missing from all three masks of the row, column and block
+     * Bit (number-1) of the result is set when the number can be placed, so for example
+     * Long.bitCount gives how many numbers there are and Long.numberOfTrailingZeros(mask)+1 the smallest one
+     * Boards with more rules (like killer) override this method and hint follows them automatically
+     *
+     * @param x the number of row
+     * @param y the number of column
+     * @return the mask of the numbers that can be placed in position x,y
+     */
+    public long hintMask(int x, int y){
+        return ~(rowMasks[x] | columnMasks[y] | blockMasks[geometry.blockOf[geometry.box(x, y)]]) & geometry.allNumbers;
+    }
+
+    /** Makes a board of the same kind and size with no numbers on it, for the solvers that
+     * need a board to play on. Boards with more rules (like killer) override it to copy them too
+     *
+     * @return the empty copy
+     */
+    Board emptyCopy(){
+        return new Board(sizeOfBlock, wordoku);
+    }
 }
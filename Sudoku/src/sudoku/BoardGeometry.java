@@ -0,0 +1,171 @@
+package sudoku;
+
+import java.util.Arrays;
+
+/**@author Alexandros Stergiopoulos & Christos Christidis
+ *
+ * The class Sudoku.BoardGeometry holds the tables that describe the shape of a board of a specific size:
+ * in which row, column and block every box is and which boxes every row, column and block has
+ * The boxes are numbered from 0 to size*size-1, row after row, so the box x,y is the box x*size+y
+ * The tables depend only on the size, so there is one object per size that all the boards of that size share,
+ * which keeps the boards themselves small
+ *
+ */
+final class BoardGeometry {
+    /**
+     * The biggest size a board can have, because the masks of the numbers are longs
+     */
+    static final int MAX_SIZE = Long.SIZE;
+
+    /**
+     * One geometry for every size, made the first time a board of that size is made
+     */
+    private static final BoardGeometry[] GEOMETRIES = new BoardGeometry[MAX_SIZE + 1];
+
+    /**
+     * size: the size of row/column, sqrtSize: the size of the side of a block
+     * blocksPerRow: how many blocks fit next to each other (sizes that aren't squares have a smaller last block)
+     */
+    final int size;
+    final int sqrtSize;
+    final int blocksPerRow;
+    final int numberOfBoxes;
+
+    /**
+     * The mask with the bits of all the numbers from 1 to size set
+     */
+    final long allNumbers;
+
+    /**
+     * For every box, the index of its row, column and block
+     */
+    final int[] rowOf;
+    final int[] columnOf;
+    final int[] blockOf;
+
+    /**
+     * For every row, column and block, the boxes that belong to it
+     */
+    final int[][] rowBoxes;
+    final int[][] columnBoxes;
+    final int[][] blockBoxes;
+
+    /**
+     * All the rows, then all the columns and then all the blocks, for the solvers that treat them the same way
+     */
+    final int[][] units;
+
+    /**
+     * For every box, the other boxes of its row, column and block, made only when a solver asks for them
+     */
+    private int[][] peers;
+
+    /** Private constructor, the geometries are taken from the method of(size)
+     *
+     * @param size the size of the board
+     */
+    private BoardGeometry(int size) {
+        this.size = size;
+        sqrtSize = (int) Math.sqrt(size);
+        blocksPerRow = (size + sqrtSize - 1) / sqrtSize;
+        numberOfBoxes = size * size;
+        allNumbers = size == Long.SIZE ? -1L : (1L << size) - 1;
+        rowOf = new int[numberOfBoxes];
+        columnOf = new int[numberOfBoxes];
+        blockOf = new int[numberOfBoxes];
+        int[] boxesInBlock = new int[blocksPerRow * blocksPerRow];
+        for (int box = 0; box < numberOfBoxes; box++) {
+            rowOf[box] = box / size;
+            columnOf[box] = box % size;
+            blockOf[box] = (rowOf[box] / sqrtSize) * blocksPerRow + columnOf[box] / sqrtSize;
+            boxesInBlock[blockOf[box]]++;
+        }
+        rowBoxes = new int[size][size];
+        columnBoxes = new int[size][size];
+        blockBoxes = new int[boxesInBlock.length][];
+        for (int block = 0; block < boxesInBlock.length; block++) {
+            blockBoxes[block] = new int[boxesInBlock[block]];
+            boxesInBlock[block] = 0;
+        }
+        for (int box = 0; box < numberOfBoxes; box++) {
+            rowBoxes[rowOf[box]][columnOf[box]] = box;
+            columnBoxes[columnOf[box]][rowOf[box]] = box;
+            blockBoxes[blockOf[box]][boxesInBlock[blockOf[box]]++] = box;
+        }
+        units = new int[2 * size + blockBoxes.length][];
+        System.arraycopy(rowBoxes, 0, units, 0, size);
+        System.arraycopy(columnBoxes, 0, units, size, size);
+        System.arraycopy(blockBoxes, 0, units, 2 * size, blockBoxes.length);
+    }
+
+    /** Gives the peers of every box, which are the boxes that can't have the same number as it
+     * They are made the first time they are asked, because only the solvers need them
+     *
+     * @return for every box, the other boxes of its row, column and block
+     */
+    synchronized int[][] peers() {
+        if (peers == null) {
+            int[][] allPeers = new int[numberOfBoxes][];
+            int[] buffer = new int[3 * size];
+            for (int box = 0; box < numberOfBoxes; box++) {
+                int count = 0;
+                for (int other : rowBoxes[rowOf[box]]) {
+                    if (other != box) {
+                        buffer[count++] = other;
+                    }
+                }
+                for (int other : columnBoxes[columnOf[box]]) {
+                    if (other != box) {
+                        buffer[count++] = other;
+                    }
+                }
+                for (int other : blockBoxes[blockOf[box]]) {
+                    if (rowOf[other] != rowOf[box] && columnOf[other] != columnOf[box]) {
+                        buffer[count++] = other;
+                    }
+                }
+                allPeers[box] = Arrays.copyOf(buffer, count);
+            }
+            peers = allPeers;
+        }
+        return peers;
+    }
+
+    /** Gives the geometry of a size, making it the first time it is asked
+     *
+     * @throws IllegalArgumentException for a size that is not positive or is greater than MAX_SIZE
+     * @param size the size of the board
+     * @return the shared geometry of boards of that size
+     */
+    static synchronized BoardGeometry of(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be positive");
+        }
+        if (size > MAX_SIZE) {
+            throw new IllegalArgumentException("size must be at most " + MAX_SIZE);
+        }
+        if (GEOMETRIES[size] == null) {
+            GEOMETRIES[size] = new BoardGeometry(size);
+        }
+        return GEOMETRIES[size];
+    }
+
+    /** Gives the index of the box in position x,y
+     *
+     * @param x number of row
+     * @param y number of column
+     * @return the index of the box
+     */
+    int box(int x, int y) {
+        return x * size + y;
+    }
+
+    /** Tells if the size is a perfect square, so that every block has exactly size boxes
+     * Solvers and generators need that, the game itself doesn't
+     *
+     * @return if the size is a perfect square or not
+     */
+    boolean isSquare() {
+        return sqrtSize * sqrtSize == size;
+    }
+}
@@ -0,0 +1,435 @@
+package sudoku;
+
+/**@author Alexandros Stergiopoulos & Christos Christidis
+ *
+ * The class Sudoku.CandidateGrid is the state of a search of the propagation solvers
+ * For every box it has the number in it (0 for empty) and the mask of its candidates, the numbers that
+ * can still go there (bit number-1 like in Sudoku.Board). Filled boxes have only the bit of their number
+ * Putting a number in a box removes it from the candidates of the peers, and the method propagate
+ * keeps using the logical techniques until none of them finds anything new
+ * A grid is copied before every guess, so that the search can go back by throwing the copy away
+ *
+ */
+class CandidateGrid {
+    final BoardGeometry geometry;
+    final int[] values;
+    final long[] candidates;
+    int emptyBoxes;
+
+    /**
+     * Boxes that were left with a single candidate and wait to be filled by nakedSingles
+     */
+    private int[] singles;
+    private int singlesCount;
+    private boolean broken;
+
+    /** Makes the grid of a board: every empty box gets the numbers that its row, column and block don't have
+     * If an empty box has no candidate, the grid is broken and propagate will return false
+     *
+     * @param geometry the geometry of the board, whose size must be a perfect square
+     * @param grid the numbers of the board in a flat array (0 for empty)
+     */
+    CandidateGrid(BoardGeometry geometry, int[] grid) {
+        this.geometry = geometry;
+        values = grid.clone();
+        candidates = new long[geometry.numberOfBoxes];
+        singles = new int[geometry.numberOfBoxes];
+        long[] used = new long[geometry.units.length];
+        for (int u = 0; u < used.length; u++) {
+            for (int box : geometry.units[u]) {
+                if (values[box] != 0) {
+                    used[u] |= Board.bit(values[box]);
+                }
+            }
+        }
+        int size = geometry.size;
+        for (int box = 0; box < values.length; box++) {
+            if (values[box] != 0) {
+                candidates[box] = Board.bit(values[box]);
+                continue;
+            }
+            emptyBoxes++;
+            long free = geometry.allNumbers & ~(used[geometry.rowOf[box]] | used[size + geometry.columnOf[box]]
+                    | used[2 * size + geometry.blockOf[box]]);
+            candidates[box] = free;
+            if (free == 0) {
+                broken = true;
+            } else if ((free & (free - 1)) == 0) {
+                singles[singlesCount++] = box;
+            }
+        }
+    }
+
+    /** Copy constructor, used by copy
+     *
+     * @param other the grid that is copied
+     */
+    CandidateGrid(CandidateGrid other) {
+        geometry = other.geometry;
+        values = other.values.clone();
+        candidates = other.candidates.clone();
+        emptyBoxes = other.emptyBoxes;
+        singles = new int[geometry.numberOfBoxes];
+        singlesCount = other.singlesCount;
+        System.arraycopy(other.singles, 0, singles, 0, singlesCount);
+        broken = other.broken;
+    }
+
+    /** Makes a copy that can be changed without changing this grid
+     * Subclasses with more state must override it
+     *
+     * @return the copy
+     */
+    CandidateGrid copy() {
+        return new CandidateGrid(this);
+    }
+
+    /** Puts a number in a box and removes it from the candidates of its peers
+     *
+     * @param box the box
+     * @param number the number, from 1 to size
+     * @return false if the number can't go there or a peer was left without candidates
+     */
+    boolean assign(int box, int number) {
+        long bit = Board.bit(number);
+        if ((candidates[box] & bit) == 0 || values[box] != 0) {
+            return false;
+        }
+        values[box] = number;
+        candidates[box] = bit;
+        emptyBoxes--;
+        for (int peer : geometry.peers()[box]) {
+            if (!eliminate(peer, bit)) {
+                return false;
+            }
+        }
+        return placed(box, number);
+    }
+
+    /** Called after a number has been put in a box, for subclasses with more rules to update their state
+     *
+     * @param box the box
+     * @param number the number
+     * @return false if the move breaks one of the extra rules
+     */
+    boolean placed(int box, int number) {
+        return true;
+    }
+
+    /** Removes candidates from a box
+     * If the box is left with a single candidate, it is kept to be filled by propagate
+     *
+     * @param box the box
+     * @param numbers the mask of the numbers that are removed
+     * @return false if the box was left without candidates
+     */
+    boolean eliminate(int box, long numbers) {
+        long before = candidates[box];
+        if ((before & numbers) == 0) {
+            return true;
+        }
+        if (values[box] != 0) {
+            return false; //the number of a filled box can't be removed
+        }
+        long after = before & ~numbers;
+        candidates[box] = after;
+        if (after == 0) {
+            return false;
+        }
+        if ((after & (after - 1)) == 0) {
+            singles[singlesCount++] = box;
+        }
+        return true;
+    }
+
+    /** Uses the techniques again and again until none of them changes anything:
+     * naked singles, then hidden singles, then locked candidates and last the extra rules of subclasses
+     * When a technique changes something, it starts again from the simplest one
+     *
+     * @param counts how many times every technique was used, in the order of Technique.values(), increased here
+     * @return false if the grid has no solution
+     */
+    boolean propagate(long[] counts) {
+        if (broken) {
+            return false;
+        }
+        while (true) {
+            if (nakedSingles(counts) < 0) {
+                return fail();
+            }
+            if (emptyBoxes == 0) {
+                return true;
+            }
+            int changes = hiddenSingles(counts);
+            if (changes == 0) {
+                changes = lockedCandidates(counts);
+            }
+            if (changes == 0) {
+                changes = propagateExtraRules(counts);
+            }
+            if (changes < 0) {
+                return fail();
+            }
+            if (changes == 0 && singlesCount == 0) {
+                return true;
+            }
+        }
+    }
+
+    /** The techniques of subclasses with more rules, called when the classic techniques find nothing
+     *
+     * @param counts how many times every technique was used
+     * @return how many changes were made, or -1 if the grid has no solution
+     */
+    int propagateExtraRules(long[] counts) {
+        return 0;
+    }
+
+    /** Marks the grid as broken, so that it is never used again
+     *
+     * @return false, to be returned by propagate
+     */
+    private boolean fail() {
+        broken = true;
+        singlesCount = 0;
+        return false;
+    }
+
+    /** Fills the boxes that were left with a single candidate, and the ones that are left with one meanwhile
+     * It is one step of propagate, and Sudoku.Grader uses it as a step of its own
+     *
+     * @param counts how many times every technique was used
+     * @return how many numbers were put, or -1 if the grid has no solution
+     */
+    int nakedSingles(long[] counts) {
+        int found = 0;
+        while (singlesCount > 0) {
+            int box = singles[--singlesCount];
+            if (values[box] != 0) {
+                continue;
+            }
+            counts[Technique.NAKED_SINGLE.ordinal()]++;
+            if (!assign(box, Long.numberOfTrailingZeros(candidates[box]) + 1)) {
+                return -1;
+            }
+            found++;
+        }
+        return found;
+    }
+
+    /** Finds the numbers that fit in only one box of a row, column or block and puts them there
+     * It also finds the numbers that fit nowhere in a unit, which means there is no solution
+     * It is one step of propagate, and Sudoku.Grader uses it as a step of its own
+     *
+     * @param counts how many times every technique was used
+     * @return how many numbers were put, or -1 if the grid has no solution
+     */
+    int hiddenSingles(long[] counts) {
+        int found = 0;
+        for (int[] unit : geometry.units) {
+            long once = 0, twice = 0, filled = 0;
+            for (int box : unit) {
+                long boxCandidates = candidates[box];
+                if (values[box] != 0) {
+                    filled |= boxCandidates;
+                } else {
+                    twice |= once & boxCandidates;
+                    once |= boxCandidates;
+                }
+            }
+            if ((once | filled) != geometry.allNumbers) {
+                return -1;
+            }
+            for (long hidden = once & ~twice & ~filled; hidden != 0; hidden &= hidden - 1) {
+                long bit = hidden & -hidden;
+                for (int box : unit) {
+                    if (values[box] == 0 && (candidates[box] & bit) != 0) {
+                        counts[Technique.HIDDEN_SINGLE.ordinal()]++;
+                        if (!assign(box, Long.numberOfTrailingZeros(bit) + 1)) {
+                            return -1;
+                        }
+                        found++;
+                        break;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /** Locked candidates: if inside a block a number fits only in one row (or column), it can't go
+     * in the rest of that row (pointing), and if inside a row (or column) a number fits only in one block,
+     * it can't go in the rest of that block (claiming)
+     * The candidates of every row and column are first joined per block, in segments
+     * It is one step of propagate, and Sudoku.Grader uses it as a step of its own
+     *
+     * @param counts how many times every technique was used
+     * @return how many candidates were removed, or -1 if the grid has no solution
+     */
+    int lockedCandidates(long[] counts) {
+        int size = geometry.size;
+        int sqrt = geometry.sqrtSize;
+        long[] rowSegments = new long[size * sqrt];
+        long[] columnSegments = new long[size * sqrt];
+        for (int box = 0; box < values.length; box++) {
+            if (values[box] == 0) {
+                int row = geometry.rowOf[box], column = geometry.columnOf[box];
+                rowSegments[row * sqrt + column / sqrt] |= candidates[box];
+                columnSegments[column * sqrt + row / sqrt] |= candidates[box];
+            }
+        }
+        int removed = 0;
+        for (int block = 0; block < size; block++) {
+            int blockRow = block / sqrt, blockColumn = block % sqrt;
+            int result = pointing(rowSegments, blockRow * sqrt, blockColumn, true, counts);
+            if (result < 0) {
+                return -1;
+            }
+            removed += result;
+            result = pointing(columnSegments, blockColumn * sqrt, blockRow, false, counts);
+            if (result < 0) {
+                return -1;
+            }
+            removed += result;
+        }
+        for (int line = 0; line < size; line++) {
+            int result = claiming(rowSegments, line, true, counts);
+            if (result < 0) {
+                return -1;
+            }
+            removed += result;
+            result = claiming(columnSegments, line, false, counts);
+            if (result < 0) {
+                return -1;
+            }
+            removed += result;
+        }
+        return removed;
+    }
+
+    /** The pointing part of locked candidates for one block and one direction
+     *
+     * @param segments the row (or column) segments
+     * @param firstLine the first row (or column) that crosses the block
+     * @param segment which segment of those lines is inside the block
+     * @param rows if the lines are rows or columns
+     * @param counts how many times every technique was used
+     * @return how many candidates were removed, or -1 if the grid has no solution
+     */
+    private int pointing(long[] segments, int firstLine, int segment, boolean rows, long[] counts) {
+        int sqrt = geometry.sqrtSize;
+        long once = 0, twice = 0;
+        for (int line = firstLine; line < firstLine + sqrt; line++) {
+            long mask = segments[line * sqrt + segment];
+            twice |= once & mask;
+            once |= mask;
+        }
+        int removed = 0;
+        for (long locked = once & ~twice; locked != 0; locked &= locked - 1) {
+            long bit = locked & -locked;
+            for (int line = firstLine; line < firstLine + sqrt; line++) {
+                if ((segments[line * sqrt + segment] & bit) != 0) {
+                    int result = removeFromLineOutsideSegment(line, segment, rows, bit);
+                    if (result < 0) {
+                        return -1;
+                    }
+                    if (result > 0) {
+                        counts[Technique.LOCKED_CANDIDATES.ordinal()]++;
+                        removed += result;
+                    }
+                    break;
+                }
+            }
+        }
+        return removed;
+    }
+
+    /** The claiming part of locked candidates for one row or column
+     *
+     * @param segments the row (or column) segments
+     * @param line the row (or column)
+     * @param rows if the line is a row or a column
+     * @param counts how many times every technique was used
+     * @return how many candidates were removed, or -1 if the grid has no solution
+     */
+    private int claiming(long[] segments, int line, boolean rows, long[] counts) {
+        int sqrt = geometry.sqrtSize;
+        long once = 0, twice = 0;
+        for (int segment = 0; segment < sqrt; segment++) {
+            long mask = segments[line * sqrt + segment];
+            twice |= once & mask;
+            once |= mask;
+        }
+        int removed = 0;
+        for (long locked = once & ~twice; locked != 0; locked &= locked - 1) {
+            long bit = locked & -locked;
+            for (int segment = 0; segment < sqrt; segment++) {
+                if ((segments[line * sqrt + segment] & bit) != 0) {
+                    int block = rows ? (line / sqrt) * sqrt + segment : segment * sqrt + line / sqrt;
+                    int result = 0;
+                    for (int box : geometry.blockBoxes[block]) {
+                        int boxLine = rows ? geometry.rowOf[box] : geometry.columnOf[box];
+                        if (boxLine != line && values[box] == 0 && (candidates[box] & bit) != 0) {
+                            if (!eliminate(box, bit)) {
+                                return -1;
+                            }
+                            result++;
+                        }
+                    }
+                    if (result > 0) {
+                        counts[Technique.LOCKED_CANDIDATES.ordinal()]++;
+                        removed += result;
+                    }
+                    break;
+                }
+            }
+        }
+        return removed;
+    }
+
+    /** Removes a number from the boxes of a row (or column) that are not in a specific block
+     *
+     * @param line the row (or column)
+     * @param segment the segment of the line that is kept
+     * @param rows if the line is a row or a column
+     * @param bit the bit of the number
+     * @return how many candidates were removed, or -1 if the grid has no solution
+     */
+    private int removeFromLineOutsideSegment(int line, int segment, boolean rows, long bit) {
+        int sqrt = geometry.sqrtSize;
+        int removed = 0;
+        int[] boxes = rows ? geometry.rowBoxes[line] : geometry.columnBoxes[line];
+        for (int i = 0; i < boxes.length; i++) {
+            int box = boxes[i];
+            if (i / sqrt != segment && values[box] == 0 && (candidates[box] & bit) != 0) {
+                if (!eliminate(box, bit)) {
+                    return -1;
+                }
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /** Minimum remaining values: finds the empty box with the fewest candidates, which is the best box for a guess
+     *
+     * @return the box, or -1 if there is no empty box
+     */
+    int boxWithFewestCandidates() {
+        int best = -1;
+        int bestCount = Integer.MAX_VALUE;
+        for (int box = 0; box < values.length; box++) {
+            if (values[box] == 0) {
+                int count = Long.bitCount(candidates[box]);
+                if (count < bestCount) {
+                    best = box;
+                    bestCount = count;
+                    if (count == 2) {
+                        break; //a box with one candidate would have been filled by propagate
+                    }
+                }
+            }
+        }
+        return best;
+    }
+}
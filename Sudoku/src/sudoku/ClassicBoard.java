@@ -1,10 +1,11 @@
 package sudoku;
 
 import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
-import java.util.HashSet;
-import java.util.Random;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.util.Arrays;
 
 /** @author Alexandros Stergiopoulos & Christos Christidis
  *
@@ -20,10 +21,31 @@ public class ClassicBoard extends Board {
      * stores the number of the different games there are on a file that has all the puzzles
      * Fields are protected because a lot of different game modes can be based on the classic game
      * and have some extra details
+     * The codes of the puzzles come from the file (see Sudoku.PuzzleCatalog), so a file can have any number of
+     * puzzles and gaps between their codes. When the number of puzzles is given instead, the codes are
+     * 1 to numberOfPuzzles
      */
     private int numberOfPuzzles;
+    private int[] codes;
     int code;
 
+    /**
+     * When true, every puzzle that is loaded is checked to have exactly one solution
+     * Off by default because the shipped puzzles are already checked
+     */
+    private boolean uniquenessValidation;
+
+    /**
+     * The difficulty of the generated puzzles, that are played when the puzzles of the file are all won
+     */
+    private Difficulty difficulty = Difficulty.MEDIUM;
+
+    /**
+     * When true, the puzzles of the file are chosen only among the ones whose grade (see Sudoku.Grader)
+     * has the difficulty of the board, as long as the player hasn't won all of them
+     */
+    private boolean difficultyFilter;
+
 
     /** General constructor without loading a board
      *
@@ -37,29 +59,42 @@ public class ClassicBoard extends Board {
         code = 0;
         if(puzzles<1)
             throw new IllegalArgumentException("puzzles must be positive number");
-        numberOfPuzzles=puzzles;
+        setNumberOfPuzzles(puzzles);
     }
 
     /** Constructor for Sudoku.ClassicBoard
      * code initializes to 0 (from the other constructor) and therefore the board isn't loaded with some numbers
-     * numberOfPuzzles in this version is 10
+     * numberOfPuzzles is the number of puzzles of the file "Classic Sudoku Puzzles.txt"
      *
      * @param size the size of the board
      * @param wordoku tells if the board is wordoku or not
      */
     public ClassicBoard(int size, boolean wordoku) {
-        this(size,10,wordoku);
+        this(size,PuzzleCatalog.DEFAULT_COUNT,wordoku);
+        useCodesOf("Classic Sudoku Puzzles.txt");
+    }
+
+    /** Makes a board whose puzzle doesn't come from a puzzle file, eg a generated one
+     * No puzzle file is read or indexed, the codes are the ones of the shipped files until useCodesOf is called
+     *
+     * @throws IllegalArgumentException for a size that is not positive or is greater than 64
+     * @param size the size of the board
+     * @param wordoku tells if the board is wordoku or not
+     * @return the board, with code 0
+     */
+    static ClassicBoard withoutFile(int size, boolean wordoku) {
+        return new ClassicBoard(size, PuzzleCatalog.DEFAULT_COUNT, wordoku);
     }
 
     /** Default Constructor for Sudoku.ClassicBoard that is used in this version
      * code initializes to 0 and therefore the board isn't loaded with some numbers
-     * numberOfPuzzles in this version is 10
+     * numberOfPuzzles is the number of puzzles of the file "Classic Sudoku Puzzles.txt"
      * the size in the default classic is 9
      *
      * @param wordoku tells if the board is wordoku or not
      */
     ClassicBoard(boolean wordoku) {
-        this(9,10,wordoku);
+        this(9,wordoku);
     }
 
     /** Constructor that immediately loads a puzzle
@@ -85,12 +120,18 @@ public class ClassicBoard extends Board {
     /** Constructor for classicBoard if you want to load a specific puzzle knowing its code
      * After the initialization of the fields, it immediately loads the board because the code is given
      *
+     * @throws IllegalArgumentException if the file "Classic Sudoku Puzzles.txt" has no puzzle with the code
      * @param size the size of the board
      * @param wordoku tells if the board is wordoku or not
      * @param code the code of the puzzle
      */
     public ClassicBoard(int size,boolean wordoku, int code){
-        this(size,wordoku,10,code,"Classic Sudoku Puzzles.txt");
+        this(size,wordoku);
+        if(!hasCode(code)){
+            throw new IllegalArgumentException("there is no puzzle with code " + code);
+        }
+        this.code=code;
+        loadBoard("Classic Sudoku Puzzles.txt");
     }
 
     /** Getter for numberOfPuzzles
@@ -102,10 +143,36 @@ public class ClassicBoard extends Board {
 
     /** Setter for numberOfPuzzles
      * In case another version will increase the number of puzzles in the file that stores them
+     * The codes become 1 to the new number of puzzles
      *
      * @param size the new number of puzzles
      */
-    public void setNumberOfPuzzles(int size){numberOfPuzzles=size;}
+    public void setNumberOfPuzzles(int size){
+        numberOfPuzzles=size;
+        codes=new int[size];
+        for(int index=0;index<size;index++){
+            codes[index]=index+1;
+        }
+    }
+
+    /** Takes the codes and the number of puzzles from a puzzle file
+     * If the file can't be read, the codes are 1 to 10
+     *
+     * @param fileName the name of the file, text or binary
+     */
+    void useCodesOf(String fileName) {
+        codes = PuzzleCatalog.codesOrDefault(fileName, hasSumsLine());
+        numberOfPuzzles = codes.length;
+    }
+
+    /** Tells if there is a puzzle with a code
+     *
+     * @param puzzle the code
+     * @return if the code is one of the codes of the puzzles
+     */
+    boolean hasCode(int puzzle) {
+        return Arrays.binarySearch(codes, puzzle) >= 0;
+    }
 
     /** Getter for code of puzzle
      *
@@ -115,35 +182,161 @@ public class ClassicBoard extends Board {
         return code;
     }
 
+    /** Setter for uniquenessValidation
+     * When it is on, loadBoard checks the loaded puzzle with hasUniqueSolution and reports the puzzles
+     * that have no solution or more than one
+     *
+     * @param validate if the loaded puzzles will be checked or not
+     */
+    public void setUniquenessValidation(boolean validate){uniquenessValidation=validate;}
+
+    /** Getter for difficulty
+     *
+     * @return the difficulty of the generated puzzles
+     */
+    public Difficulty getDifficulty(){return difficulty;}
+
+    /** Setter for difficulty
+     *
+     * @param difficulty the difficulty of the generated puzzles
+     */
+    public void setDifficulty(Difficulty difficulty){this.difficulty=difficulty;}
+
+    /** Setter for difficultyFilter
+     *
+     * @param filter if the puzzles of the file are chosen by their difficulty or not
+     */
+    public void setDifficultyFilter(boolean filter){difficultyFilter=filter;}
+
+    /** Checks that the puzzle on the board has exactly one solution
+     * The search stops as soon as it finds a second solution, so it is fast even for puzzles with many solutions
+     *
+     * @return if the puzzle has exactly one solution or not
+     */
+    public boolean hasUniqueSolution(){
+        return newSolver().hasUniqueSolution(this);
+    }
+
+    /** Makes the solver that knows all the rules of this board
+     * Boards with more rules (like killer) override it
+     *
+     * @return a new solver for this board
+     */
+    Solver newSolver(){
+        return new ConstraintSolver();
+    }
+
     /** Method where given a set of codes, it sets the object with a random code not belonging in the set
-     * If the set is empty or full(has all the codes) it sets the first random number it generates
-     * If not, it generates numbers from 1 to numberOfPuzzles until one of them isn't on the Set
+     * If the set is full(has all the codes) it sets any random code
      * The method is protected, because it needs to be inherited in games like killer that extend this class
+     * It has to find the codes that are not in the set first, so the players use findNonPlayedGame(UnplayedPuzzles)
+     * with the codes they keep
      *
-     * @param wonGames HashSet with codes of already won games
+     * @param wonGames the codes of already won games
      */
-    void findNonPlayedGame(HashSet<Integer> wonGames) {
-        Random r = new Random();
-        if (wonGames.size() == numberOfPuzzles || wonGames.isEmpty()) {
-            code = r.nextInt(numberOfPuzzles) + 1;
-        } else {
-            do {
-                code = r.nextInt(numberOfPuzzles) + 1;
-            } while (wonGames.contains(code));
-        }
+    void findNonPlayedGame(WonGames wonGames) {
+        findNonPlayedGame(new UnplayedPuzzles(codes, wonGames));
+    }
+
+    /** Sets the object with a random code among the puzzles that are not won, or any random code if all are won
+     * It takes the same time however many puzzles are won
+     *
+     * @param unplayed the codes that are not won
+     */
+    void findNonPlayedGame(UnplayedPuzzles unplayed) {
+        code = unplayed.pick();
+    }
+
+    /** Gives the codes of the puzzles of the board
+     * The array is not copied, so it must not be changed
+     *
+     * @return the codes in ascending order
+     */
+    int[] getCodes() {
+        return codes;
     }
 
     /** loads a game for a player that they haven't played before
      * Used if another programmes stores the boards on different a file
+     * If the player has won all the puzzles of the file, a generated puzzle is taken from the shared
+     * Sudoku.PuzzlePool instead (with code 0), so that they don't play the same puzzles again
+     * When the player is one puzzle away from that, the pool is told to start generating, so that the
+     * puzzle is ready when it is needed
      *
      * @param player a player needed for their stats
      * @param fileName the name of the file that contains the puzzles
      */
     public void startNewGameForPlayer(Player player, String fileName) {
-        findNonPlayedGame(player.getClassicSudokuGamesWon());
+        useCodesOf(fileName);
+        UnplayedPuzzles unplayed = player.getClassicUnplayed(codes);
+        if (geometry.isSquare() && unplayed.isEmpty()) {
+            loadPuzzle(PuzzlePool.shared().take(sizeOfBlock, difficulty));
+            return;
+        }
+        if (geometry.isSquare() && unplayed.size() <= 1) {
+            PuzzlePool.shared().prepare(sizeOfBlock, difficulty);
+        }
+        if (difficultyFilter) {
+            WonGames skipped = new WonGames(player.getClassicSudokuGamesWon());
+            addCodesWithOtherDifficulty(fileName, skipped);
+            UnplayedPuzzles filtered = new UnplayedPuzzles(codes, skipped);
+            if (!filtered.isEmpty()) {
+                findNonPlayedGame(filtered); //the puzzles of other difficulties are skipped like the won ones
+                loadBoard(fileName);
+                return;
+            }
+        }
+        findNonPlayedGame(unplayed);
         loadBoard(fileName);
     }
 
+    /** Finds the puzzles of the file whose grade has another difficulty than the one of the board
+     * The puzzles without a grade are never skipped. The grades are the ones kept with the codes of the file
+     * (see Sudoku.PuzzleCatalog), so the file is not read again
+     *
+     * @param fileName the name of the file that contains the puzzles
+     * @param skipped where the codes of those puzzles are added
+     */
+    private void addCodesWithOtherDifficulty(String fileName, WonGames skipped) {
+        try {
+            PuzzleCatalog.addCodesWithOtherDifficulty(fileName, hasSumsLine(), difficulty, skipped);
+        } catch (IOException | NumberFormatException exc) {
+            System.out.println("Problem with file");
+        }
+    }
+
+    /** Loads a puzzle that doesn't come from the file, eg one made by Sudoku.PuzzleGenerator
+     * The numbers that were on the board are replaced and the code becomes 0, because the puzzle has no code
+     *
+     * @throws IllegalArgumentException if the puzzle doesn't have the size of the board or has numbers out of range
+     * @param puzzle the numbers of the puzzle, 0 for the empty boxes
+     */
+    public void loadPuzzle(int[][] puzzle) {
+        if (puzzle.length != sizeOfBlock) {
+            throw new IllegalArgumentException("puzzle must have " + sizeOfBlock + " rows");
+        }
+        for (int[] row : puzzle) {
+            if (row.length != sizeOfBlock) {
+                throw new IllegalArgumentException("puzzle must have " + sizeOfBlock + " columns");
+            }
+            for (int number : row) {
+                if (number < 0 || number > sizeOfBlock) {
+                    throw new IllegalArgumentException("numbers of puzzle must be from 0 to " + sizeOfBlock);
+                }
+            }
+        }
+        for (int i = 0; i < sizeOfBlock; i++) {
+            for (int j = 0; j < sizeOfBlock; j++) {
+                if (puzzle[i][j] == 0) {
+                    delete(i, j);
+                } else {
+                    place(i, j, puzzle[i][j]);
+                }
+            }
+        }
+        code = 0;
+    }
+
     /** loads a game for a player that they haven't played before
      * The method used by GUI that simply calls two protected methods
      * Default method for this version where the file name is Classic Sudoku Puzzles.txt
@@ -155,8 +348,10 @@ public class ClassicBoard extends Board {
     }
 
     /** After a code has been given on the field code (by the constructor or the method findNonPlayedGame)
-     * the method scans the file "Classic Sudoku Puzzles" that has all the games stored and loads the one
-     * with the code of the object
+     * the method loads the puzzle with the code of the object from the file "Classic Sudoku Puzzles" that has all
+     * the games stored. The file is not scanned: Sudoku.PuzzleIndex knows where every puzzle starts, so the file is
+     * opened at that position and only the rows of the puzzle are read. If the file has no puzzle with the code,
+     * the board stays as it was
      * The file has a certain way that stores the boards, which is: On a single line there is the code of the
      * puzzle (the code is an integer number and on this library  we start with code:1) and below is the board
      * The boards have some positions filled with the correct numbers, and the empty spots have
@@ -173,22 +368,28 @@ public class ClassicBoard extends Board {
      * 7 2 0 0 0 0 5 9 0
      * 0 0 0 0 0 0 0 2 8
      *
+     * The line of the code may also have the grade of the puzzle after the code, eg "4 23" (see Sudoku.Grader)
+     * When uniquenessValidation is on, the loaded puzzle is also checked to have exactly one solution
+     *
      * @throws IOException for problem with the file
      * @param fileName the name of the file that stores the classic sudoku puzzles
      */
     protected void loadBoard(String fileName) {
-        try (BufferedReader read = new BufferedReader(new FileReader(fileName))) {
-            String line;
-            while ((line = read.readLine()) != null) {
-                if (line.equals(Integer.toString(code))) {
-                    for (int i = 0; i < sizeOfBlock; i++) {
-                        line = read.readLine();
-                        String[] row = line.split(" ");
-                        for (int j = 0; j < sizeOfBlock; j++) {
-                            sudokuBoard[i][j] = Integer.parseInt(row[j]);
-                        }
-                    }
-                }
+        try {
+            if (PuzzleStore.isStore(fileName)) {
+                loadFromStore(PuzzleStore.of(fileName));
+                return;
+            }
+            long offset = PuzzleIndex.of(fileName, hasSumsLine()).offsetOf(code);
+            if (offset < 0) {
+                return;
+            }
+            try (RandomAccessFile file = new RandomAccessFile(fileName, "r")) {
+                file.seek(offset);
+                readPuzzle(new BufferedReader(new InputStreamReader(Channels.newInputStream(file.getChannel()))));
+            }
+            if (uniquenessValidation && !hasUniqueSolution()) {
+                System.err.println("Puzzle " + code + " of " + fileName + " doesn't have a unique solution");
             }
         } catch (IOException exc) {
             System.out.println("Problem with file");
@@ -196,4 +397,113 @@ public class ClassicBoard extends Board {
             System.err.println("Problem with storing of board in file");
         }
     }
+
+    /** Loads the puzzle with the code of the object from a binary puzzle file
+     * If the file has no puzzle with the code, the board stays as it was
+     *
+     * @throws NumberFormatException if the file has puzzles of another size or kind
+     * @param store the binary puzzle file
+     */
+    private void loadFromStore(PuzzleStore store) {
+        if (store.getSize() != sizeOfBlock || store.isKiller() != hasSumsLine()) {
+            throw new NumberFormatException("the puzzles of the file are not for this board");
+        }
+        int record = store.find(code);
+        if (record < 0) {
+            return;
+        }
+        readPuzzle(store, record);
+        if (uniquenessValidation && !hasUniqueSolution()) {
+            System.err.println("Puzzle " + code + " of the binary file doesn't have a unique solution");
+        }
+    }
+
+    /** Finds the code in the line of the code of a puzzle, which is the code alone or the code and the grade
+     *
+     * @param line a line of a puzzle file
+     * @return the code, or -1 if the line is not the line of a code
+     */
+    static int codeOf(String line) {
+        String[] parts = line.trim().split(" ");
+        if (parts.length > 2) {
+            return -1;
+        }
+        try {
+            int code = Integer.parseInt(parts[0]);
+            if (parts.length == 2) {
+                Integer.parseInt(parts[1]);
+            }
+            return code;
+        } catch (NumberFormatException exc) {
+            return -1;
+        }
+    }
+
+    /** Finds the grade in the line of the code of a puzzle
+     *
+     * @param line a line of a puzzle file
+     * @return the grade, or -1 if the line has no grade or is not the line of a code
+     */
+    static int gradeOf(String line) {
+        String[] parts = line.trim().split(" ");
+        if (parts.length != 2 || codeOf(line) < 0) {
+            return -1;
+        }
+        return Integer.parseInt(parts[1]);
+    }
+
+    /** Puts the numbers of a puzzle of a binary puzzle file on the board, like readPuzzle does for a text file
+     *
+     * @param store the binary puzzle file
+     * @param record the record of the puzzle
+     */
+    void readPuzzle(PuzzleStore store, int record) {
+        for (int i = 0; i < sizeOfBlock; i++) {
+            for (int j = 0; j < sizeOfBlock; j++) {
+                int number = store.numberOf(record, geometry.box(i, j));
+                if (number == 0) {
+                    delete(i, j);
+                } else {
+                    place(i, j, number);
+                }
+            }
+        }
+    }
+
+    /** Tells if the puzzles of the files of this board have a line with sums after their rows, like the killer ones
+     * Used by Sudoku.PuzzleIndex to know how many lines every puzzle has
+     *
+     * @return false, the classic puzzles only have their rows
+     */
+    boolean hasSumsLine() {
+        return false;
+    }
+
+    /** Reads the lines of a puzzle, after the line with its code, and puts the numbers on the board
+     * Used by loadBoard and by Sudoku.PuzzleValidator that reads whole files
+     *
+     * @throws IOException for problem with the file
+     * @throws NumberFormatException if the puzzle is not stored the right way
+     * @param read the reader of the file, just after the line with the code
+     */
+    void readPuzzle(BufferedReader read) throws IOException {
+        for (int i = 0; i < sizeOfBlock; i++) {
+            String line = read.readLine();
+            if (line == null) {
+                throw new NumberFormatException("file ended inside a puzzle");
+            }
+            String[] row = line.split(" ");
+            for (int j = 0; j < sizeOfBlock; j++) {
+                int number = Integer.parseInt(row[j]);
+                if (number < 0 || number > sizeOfBlock) {
+                    throw new NumberFormatException("numbers of puzzle must be from 0 to " + sizeOfBlock);
+                }
+                if (number == 0) {
+                    delete(i, j);
+                } else {
+                    place(i, j, number);
+                }
+            }
+        }
+    }
 }
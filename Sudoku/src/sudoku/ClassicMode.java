@@ -55,7 +55,9 @@ public class ClassicMode extends JFrame {
             public void actionPerformed(ActionEvent e) {
                 if (board.finished()) {
                     JOptionPane.showMessageDialog(null, bundle.getString("checkMessageFinished"));
-                    player.addClassicSudoku(board.getCode());
+                    if (board.getCode() > 0) { //a generated puzzle has no code to remember
+                        player.addClassicSudoku(board.getCode());
+                    }
                     player.changePlayerFile();
                     dispose();
                 } else {
@@ -86,11 +88,11 @@ public class ClassicMode extends JFrame {
                 /** Declaring two new int variables with the value of i,j in each cycle of the loop that will be used
                  * later on in each listener.
                  */
-                if(board.sudokuBoard[i][j]!=0) {
+                if(!board.isEmpty(i,j)) {
                     if (!board.isWordoku()) {
-                        boxes[i][j].setText(String.valueOf(board.sudokuBoard[i][j]));
+                        boxes[i][j].setText(String.valueOf(board.getNumber(i,j)));
                     } else {
-                        boxes[i][j].setText(Character.toString(board.numberToChar(board.sudokuBoard[i][j], greek)));
+                        boxes[i][j].setText(Character.toString(board.numberToChar(board.getNumber(i,j), greek)));
                     }
                     boxes[i][j].setEditable(false);
                 }
@@ -196,7 +198,7 @@ public class ClassicMode extends JFrame {
 
                         if (c==KeyEvent.VK_BACK_SPACE){
                             keyEvent.consume();
-                            board.sudokuBoard[finalI][finalJ] =0;
+                            board.delete(finalI,finalJ);
                         }
                     }
 
@@ -0,0 +1,36 @@
+package sudoku;
+
+import java.util.List;
+
+/**@author Alexandros Stergiopoulos & Christos Christidis
+ *
+ * The class Sudoku.ConstraintSolver solves a board with constraint propagation and search
+ * Every box has a mask of candidates that comes from the rules of the rows, columns and blocks of Sudoku.Board,
+ * and the techniques naked singles, hidden singles and locked candidates fill boxes and remove candidates
+ * When they can't do anything more, the solver guesses on the box with the fewest candidates
+ * (minimum remaining values) and goes on with a copy of the grid for every candidate of that box (see Sudoku.GridSearch)
+ * The statistics tell how many guesses (nodes) were made and how many times every technique was used
+ *
+ */
+public class ConstraintSolver extends AbstractSolver {
+    /** Makes the candidate grid of the board and searches it
+     *
+     * @param board the board that is solved
+     * @param grid the numbers of the board in a flat array
+     * @param limit the most solutions that must be found
+     * @param solutions the list where the solutions are added
+     */
+    @Override
+    void search(Board board, int[] grid, int limit, List<int[][]> solutions) {
+        GridSearch search = new GridSearch() {
+            @Override
+            boolean solved(CandidateGrid solved) {
+                solutions.add(toSquareArray(solved.values, solved.geometry.size));
+                return solutions.size() >= limit;
+            }
+        };
+        search.search(new CandidateGrid(board.geometry, grid));
+        statistics.addNodes(search.getNodes());
+        statistics.addTechniques(search.techniqueCounts);
+    }
+}
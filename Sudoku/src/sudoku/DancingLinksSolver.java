@@ -0,0 +1,219 @@
+package sudoku;
+
+import java.util.List;
+
+/**@author Alexandros Stergiopoulos & Christos Christidis
+ *
+ * The class Sudoku.DancingLinksSolver solves a board as an exact cover problem with Knuth's Algorithm X
+ * and dancing links
+ * Every rule of sudoku is a column of a matrix that must be covered exactly once:
+ * every box has one number, and every row, column and block has every number once
+ * Every possible move (a number in a box) is a row of the matrix that covers four columns
+ * Only the columns that the given numbers haven't covered yet and the moves that the given numbers allow
+ * are put in the matrix, so the easier the puzzle, the smaller the matrix
+ * The matrix is stored in int arrays (left, right, up, down, column of every node) instead of node objects,
+ * so covering and uncovering a column is only changing some ints
+ *
+ */
+public class DancingLinksSolver extends AbstractSolver {
+    /**
+     * The links of the nodes. Node 0 is the root, nodes 1 to the number of columns are the column headers
+     * and the rest are the nodes of the moves, four for every move
+     */
+    private int[] left;
+    private int[] right;
+    private int[] up;
+    private int[] down;
+    private int[] columnOfNode;
+    private int[] moveOfNode;
+    private int[] columnSize;
+
+    /**
+     * The moves chosen on the current path of the search, and what is needed to write a solution
+     */
+    private int[] chosenNodes;
+    private int[] grid;
+    private int size;
+    private int limit;
+    private List<int[][]> solutions;
+    private long nodes;
+
+    /** Builds the matrix for the board and runs Algorithm X
+     *
+     * @param board the board that is solved
+     * @param grid the numbers of the board in a flat array
+     * @param limit the most solutions that must be found
+     * @param solutions the list where the solutions are added
+     */
+    @Override
+    void search(Board board, int[] grid, int limit, List<int[][]> solutions) {
+        this.grid = grid;
+        this.limit = limit;
+        this.solutions = solutions;
+        size = board.geometry.size;
+        nodes = 0;
+        buildMatrix(board.geometry);
+        search(0);
+        statistics.addNodes(nodes);
+        this.grid = null;
+        this.solutions = null;
+    }
+
+    /** Makes the matrix of the exact cover problem
+     * The columns are numbered like this (number from 0 to size-1):
+     * box, then size*size + row*size + number, then 2*size*size + column*size + number
+     * and last 3*size*size + block*size + number
+     *
+     * @param geometry the geometry of the board
+     */
+    private void buildMatrix(BoardGeometry geometry) {
+        int boxes = geometry.numberOfBoxes;
+        long[] rows = new long[size];
+        long[] columns = new long[size];
+        long[] blocks = new long[size];
+        int emptyBoxes = 0;
+        for (int box = 0; box < boxes; box++) {
+            if (grid[box] != 0) {
+                long bit = Board.bit(grid[box]);
+                rows[geometry.rowOf[box]] |= bit;
+                columns[geometry.columnOf[box]] |= bit;
+                blocks[geometry.blockOf[box]] |= bit;
+            } else {
+                emptyBoxes++;
+            }
+        }
+        int[] headerOfConstraint = new int[4 * boxes];
+        int headers = 0;
+        for (int box = 0; box < boxes; box++) {
+            headerOfConstraint[box] = grid[box] == 0 ? ++headers : 0;
+        }
+        for (int unit = 0; unit < size; unit++) {
+            for (int number = 0; number < size; number++) {
+                long bit = 1L << number;
+                headerOfConstraint[boxes + unit * size + number] = (rows[unit] & bit) == 0 ? ++headers : 0;
+                headerOfConstraint[2 * boxes + unit * size + number] = (columns[unit] & bit) == 0 ? ++headers : 0;
+                headerOfConstraint[3 * boxes + unit * size + number] = (blocks[unit] & bit) == 0 ? ++headers : 0;
+            }
+        }
+        int capacity = headers + 1 + 4 * emptyBoxes * size;
+        left = new int[capacity];
+        right = new int[capacity];
+        up = new int[capacity];
+        down = new int[capacity];
+        columnOfNode = new int[capacity];
+        moveOfNode = new int[capacity];
+        columnSize = new int[headers + 1];
+        chosenNodes = new int[emptyBoxes];
+        for (int header = 0; header <= headers; header++) {
+            left[header] = header == 0 ? headers : header - 1;
+            right[header] = header == headers ? 0 : header + 1;
+            up[header] = header;
+            down[header] = header;
+            columnOfNode[header] = header;
+        }
+        int next = headers + 1;
+        int[] constraints = new int[4];
+        for (int box = 0; box < boxes; box++) {
+            if (grid[box] != 0) {
+                continue;
+            }
+            int row = geometry.rowOf[box], column = geometry.columnOf[box], block = geometry.blockOf[box];
+            long free = ~(rows[row] | columns[column] | blocks[block]) & geometry.allNumbers;
+            for (; free != 0; free &= free - 1) {
+                int number = Long.numberOfTrailingZeros(free);
+                constraints[0] = headerOfConstraint[box];
+                constraints[1] = headerOfConstraint[boxes + row * size + number];
+                constraints[2] = headerOfConstraint[2 * boxes + column * size + number];
+                constraints[3] = headerOfConstraint[3 * boxes + block * size + number];
+                int first = next;
+                for (int k = 0; k < 4; k++) {
+                    int node = next++;
+                    int header = constraints[k];
+                    columnOfNode[node] = header;
+                    moveOfNode[node] = box * size + number;
+                    up[node] = up[header];
+                    down[node] = header;
+                    down[up[header]] = node;
+                    up[header] = node;
+                    columnSize[header]++;
+                    left[node] = k == 0 ? first + 3 : node - 1;
+                    right[node] = k == 3 ? first : node + 1;
+                }
+            }
+        }
+    }
+
+    /** Algorithm X: chooses the column with the fewest nodes and tries every move that covers it
+     *
+     * @param depth how many moves are on the current path
+     * @return true when enough solutions have been found and the search must stop
+     */
+    private boolean search(int depth) {
+        if (right[0] == 0) {
+            int[] solution = grid.clone();
+            for (int i = 0; i < depth; i++) {
+                int move = moveOfNode[chosenNodes[i]];
+                solution[move / size] = move % size + 1;
+            }
+            solutions.add(toSquareArray(solution, size));
+            return solutions.size() >= limit;
+        }
+        int chosenColumn = right[0];
+        for (int header = right[chosenColumn]; header != 0; header = right[header]) {
+            if (columnSize[header] < columnSize[chosenColumn]) {
+                chosenColumn = header;
+            }
+        }
+        if (columnSize[chosenColumn] == 0) {
+            return false;
+        }
+        cover(chosenColumn);
+        for (int node = down[chosenColumn]; node != chosenColumn; node = down[node]) {
+            nodes++;
+            chosenNodes[depth] = node;
+            for (int other = right[node]; other != node; other = right[other]) {
+                cover(columnOfNode[other]);
+            }
+            if (search(depth + 1)) {
+                return true; //the matrix is made again for the next board, so it doesn't need restoring
+            }
+            for (int other = left[node]; other != node; other = left[other]) {
+                uncover(columnOfNode[other]);
+            }
+        }
+        uncover(chosenColumn);
+        return false;
+    }
+
+    /** Removes a column from the header list and all the moves that cover it from the other columns
+     *
+     * @param header the header of the column
+     */
+    private void cover(int header) {
+        right[left[header]] = right[header];
+        left[right[header]] = left[header];
+        for (int row = down[header]; row != header; row = down[row]) {
+            for (int node = right[row]; node != row; node = right[node]) {
+                up[down[node]] = up[node];
+                down[up[node]] = down[node];
+                columnSize[columnOfNode[node]]--;
+            }
+        }
+    }
+
+    /** Puts back a column that was covered, in the opposite order
+     *
+     * @param header the header of the column
+     */
+    private void uncover(int header) {
+        for (int row = up[header]; row != header; row = up[row]) {
+            for (int node = left[row]; node != row; node = left[node]) {
+                columnSize[columnOfNode[node]]++;
+                up[down[node]] = node;
+                down[up[node]] = node;
+            }
+        }
+        right[left[header]] = header;
+        left[right[header]] = header;
+    }
+}
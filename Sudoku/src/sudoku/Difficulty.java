@@ -0,0 +1,49 @@
+package sudoku;
+
+/**@author Alexandros Stergiopoulos & Christos Christidis
+ *
+ * The enum Sudoku.Difficulty names how hard a puzzle is
+ * A generated puzzle is harder when it has fewer numbers: every difficulty keeps at least a part of the boxes
+ * filled, and the hardest one empties as many boxes as it can
+ * A graded puzzle gets its difficulty from the score of Sudoku.Grader: only singles is easy,
+ * up to hidden pairs is medium, and the rest is hard
+ *
+ */
+public enum Difficulty {
+    /** More than half of the boxes keep their number */
+    EASY(0.55),
+    /** Less than half of the boxes keep their number */
+    MEDIUM(0.45),
+    /** Every box that can be emptied without a second solution is emptied */
+    HARD(0);
+
+    private final double filledPart;
+
+    Difficulty(double filledPart) {
+        this.filledPart = filledPart;
+    }
+
+    /** Gives the difficulty of a score of Sudoku.Grader
+     *
+     * @param score the score
+     * @return the difficulty
+     */
+    public static Difficulty ofScore(int score) {
+        if (score < 30) {
+            return EASY;
+        }
+        if (score < 60) {
+            return MEDIUM;
+        }
+        return HARD;
+    }
+
+    /** Gives the fewest numbers a puzzle of this difficulty keeps
+     *
+     * @param size the size of the board
+     * @return the number of boxes that stay filled at least
+     */
+    int clues(int size) {
+        return (int) Math.round(filledPart * size * size);
+    }
+}
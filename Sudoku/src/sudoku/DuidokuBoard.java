@@ -1,41 +1,94 @@
 package sudoku;
 
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.Random;
 
 /**  @author Alexandros Stergiopoulos & Christos Christidis
  * Sudoku.DuidokuBoard is the class that represents the board of a Sudoku.Duidoku game
- * It inherits from the mother class Sudoku.Board and has no extra fields, only a few methods
+ * It inherits from the mother class Sudoku.Board and has a few methods
  * so the pc can make a move on the board
  *
  */
 public class DuidokuBoard extends Board {
+    /** The game ends when no empty box can take a number, so the board remembers which boxes
+     * are still playable (empty with at least one legal number) and how many they are
+     * A move only changes the boxes of its row, column and block, so only those are refreshed
+     */
+    private boolean[] playable;
+    private int playableBoxes;
 
     /** Default constructor that makes a 4x4 board
      *
      * @param wordoku is the game wordoku or not
      */
     DuidokuBoard(boolean wordoku){
-        super(4,wordoku);
+        this(4,wordoku);
     }
 
     /** Constructor so that the board can be bigger
+     * In the beginning every box is empty and therefore playable
      *
      * @param size the size of the board
      * @param wordoku is the game wordoku or not
      */
     public DuidokuBoard(int size,boolean wordoku){
         super(size,wordoku);
+        playable= new boolean[geometry.numberOfBoxes];
+        Arrays.fill(playable, true);
+        playableBoxes=geometry.numberOfBoxes;
     }
 
-    /** Method is private because it is used by the method finished and by the pcMove
+    /** Place needs overriding so that the playable boxes are updated after the move
      *
-     * @param x the number of row
-     * @param y the number of column
-     * @return if the position is empty or not
+     * @param x number of row
+     * @param y number of column
+     * @param number number that is put
      */
-    private boolean isPositionEmpty(int x,int y){
-        return sudokuBoard[x][y]==0;
+    @Override
+    void place(int x, int y, int number){
+        super.place(x, y, number);
+        refreshPlayable(x, y);
+    }
+
+    /** Delete needs overriding so that the playable boxes are updated after the move
+     *
+     * @param x number of row
+     * @param y number of column
+     */
+    @Override
+    void delete(int x, int y){
+        super.delete(x, y);
+        refreshPlayable(x, y);
+    }
+
+    /** Updates whether the boxes in the row, column and block of the position x,y can still take a number
+     * Private because it is called only by place and delete
+     *
+     * @param x number of row
+     * @param y number of column
+     */
+    private void refreshPlayable(int x, int y){
+        for(int box:geometry.rowBoxes[x]){
+            refreshBox(box);
+        }
+        for(int box:geometry.columnBoxes[y]){
+            refreshBox(box);
+        }
+        for(int box:geometry.blockBoxes[geometry.blockOf[geometry.box(x, y)]]){
+            refreshBox(box);
+        }
+    }
+
+    /** Updates whether a box can still take a number and the counter of playable boxes
+     *
+     * @param box the index of the box
+     */
+    private void refreshBox(int box){
+        boolean nowPlayable= boxes[box]==0 && hintMask(geometry.rowOf[box], geometry.columnOf[box])!=0;
+        if(nowPlayable!=playable[box]){
+            playable[box]=nowPlayable;
+            playableBoxes+= nowPlayable ? 1 : -1;
+        }
     }
 
     /** Method where the pc makes a random move, meaning it will place a number in a position
@@ -63,7 +116,7 @@ public class DuidokuBoard extends Board {
             coords[0]= x;
             coords[1] = y;
             coords[2] = number;
-        } while(!(isPositionEmpty(x,y)) || ((check(x,y,number))!=0));
+        } while(!(isEmpty(x,y)) || ((check(x,y,number))!=0));
         return coords;
 
     }
@@ -71,27 +124,12 @@ public class DuidokuBoard extends Board {
     /** Finished method by class Sudoku.Board needs overriding
      * here the game can be finished either by the original way (as in the super.finished) or if there
      * are empty boxes but no number can be inserted and follow all the rules
-     * So first it checks the super and if there are some empty spots, it checks if at least in
-     * one of them a number can be put. This is done by calling the hint method and seeing if the
-     * hashSet is empty or not
+     * Both are counted while the moves are made, so the method takes constant time
      *
      * @return boolean value saying if the game is finished or not
      */
     @Override
     public boolean finished(){
-        if(super.finished()) {
-            return true;
-        }
-        for(int i=0;i<sizeOfBlock;i++){
-            for (int j=0;j<sizeOfBlock;j++){
-                if(isPositionEmpty(i,j)){
-                    HashSet<Integer> posHint=hint(i,j);
-                    if(!posHint.isEmpty()){
-                        return false;
-                    }
-                }
-            }
-        }
-        return true;
+        return super.finished() || playableBoxes==0;
     }
 }
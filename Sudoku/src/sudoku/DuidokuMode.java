@@ -164,7 +164,7 @@ public class DuidokuMode extends JFrame{
 
                         if (c==KeyEvent.VK_BACK_SPACE){
                             keyEvent.consume();
-                            board.sudokuBoard[finalI][finalJ] = 0;
+                            board.delete(finalI,finalJ);
                         }
                     }
 
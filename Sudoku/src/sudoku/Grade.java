@@ -0,0 +1,79 @@
+package sudoku;
+
+/**@author Alexandros Stergiopoulos & Christos Christidis
+ *
+ * The class Sudoku.Grade is the result of Sudoku.Grader for a puzzle: which techniques a player needs,
+ * how many times, and a score made from them
+ * The score is 10 times the level of the hardest technique (1 for naked singles up to 8 for simple coloring)
+ * plus how many times that technique was needed, up to 9, so it goes from 10 to 89 and the tens tell the
+ * hardest technique. A puzzle that the techniques of the grader can't solve, so the player must guess, gets
+ * UNSOLVED_SCORE, and a board that is already solved gets 0, which is easy like every score under 30
+ *
+ */
+public class Grade {
+    /**
+     * The score of a puzzle that the techniques can't solve
+     */
+    public static final int UNSOLVED_SCORE = 90;
+
+    private final long[] counts;
+    private final Technique hardest;
+    private final boolean solved;
+    private final int score;
+
+    /** Constructor, used by the grader
+     *
+     * @param counts how many times every technique was used, in the order of Technique.values()
+     * @param hardest the hardest technique that was used, null if none
+     * @param hardestLevel the level of the hardest technique
+     * @param solved if the techniques solved the puzzle
+     */
+    Grade(long[] counts, Technique hardest, int hardestLevel, boolean solved) {
+        this.counts = counts;
+        this.hardest = hardest;
+        this.solved = solved;
+        if (!solved) {
+            score = UNSOLVED_SCORE;
+        } else if (hardest == null) {
+            score = 0; //the puzzle was already solved
+        } else {
+            score = 10 * hardestLevel + (int) Math.min(9, counts[hardest.ordinal()]);
+        }
+    }
+
+    /** Getter for score
+     *
+     * @return the score of the puzzle, from 10 to 89, UNSOLVED_SCORE if it needs guessing, 0 if it is already solved
+     */
+    public int getScore(){return score;}
+
+    /** Getter for hardest
+     *
+     * @return the hardest technique that was needed, null if none was needed
+     */
+    public Technique getHardestTechnique(){return hardest;}
+
+    /** Getter for solved
+     *
+     * @return if the techniques of the grader solved the puzzle, without guessing
+     */
+    public boolean isSolvedByLogic(){return solved;}
+
+    /** Getter for how many times a technique was used
+     *
+     * @param technique the technique
+     * @return how many times it filled boxes or removed candidates
+     */
+    public long getTechniqueCount(Technique technique){return counts[technique.ordinal()];}
+
+    /** Gives the difficulty of the score
+     *
+     * @return the difficulty
+     */
+    public Difficulty getDifficulty(){return Difficulty.ofScore(score);}
+
+    @Override
+    public String toString() {
+        return "score: " + score + ", hardest: " + hardest + (solved ? "" : ", needs guessing");
+    }
+}
@@ -0,0 +1,646 @@
+package sudoku;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**@author Alexandros Stergiopoulos & Christos Christidis
+ *
+ * The class Sudoku.Grader tells how hard a classic puzzle is for a player, by solving it only with the techniques
+ * that players use, from the simplest to the hardest:
+ * naked singles, hidden singles, locked candidates (pointing and claiming), naked pairs, hidden pairs,
+ * X-wing, swordfish and simple coloring (chains of a number)
+ * Every time, the simplest technique that finds something is used, and then it starts again from the simplest,
+ * like a player would do. The grade (see Sudoku.Grade) comes from the hardest technique that was needed
+ * and how many times it was needed. A puzzle that these techniques can't solve needs guessing and gets
+ * the highest score
+ *
+ * A grader has no state, so one grader can grade puzzles from many threads at the same time
+ * It can also grade a whole puzzle file from the command line, writing the score next to the code of every puzzle:
+ * java sudoku.Grader "Classic Sudoku Puzzles.txt"
+ *
+ */
+public class Grader {
+    /**
+     * The techniques from the simplest to the hardest, the level of a technique is its index + 1
+     */
+    private static final Technique[] LEVELS = {
+            Technique.NAKED_SINGLE, Technique.HIDDEN_SINGLE, Technique.LOCKED_CANDIDATES, Technique.NAKED_PAIR,
+            Technique.HIDDEN_PAIR, Technique.X_WING, Technique.SWORDFISH, Technique.SIMPLE_COLORING
+    };
+
+    /**
+     * How many puzzles of a file are graded together, so that a big file doesn't have to fit in memory
+     */
+    private static final int BATCH = 10000;
+
+    /** Grades the puzzle of a board
+     *
+     * @throws IllegalArgumentException if the size of the board is not a perfect square
+     * @param board the board with the puzzle
+     * @return the grade
+     */
+    public Grade grade(Board board) {
+        int[] grid = new int[board.geometry.numberOfBoxes];
+        for (int box = 0; box < grid.length; box++) {
+            grid[box] = board.boxes[box];
+        }
+        return grade(board.geometry, grid);
+    }
+
+    /** Grades a puzzle
+     *
+     * @throws IllegalArgumentException if the puzzle is not square or its size is not a perfect square
+     * @param puzzle the numbers of the puzzle, 0 for the empty boxes
+     * @return the grade
+     */
+    public Grade grade(int[][] puzzle) {
+        BoardGeometry geometry = BoardGeometry.of(puzzle.length);
+        int[] grid = new int[geometry.numberOfBoxes];
+        for (int i = 0; i < puzzle.length; i++) {
+            if (puzzle[i].length != puzzle.length) {
+                throw new IllegalArgumentException("puzzle must be square");
+            }
+            System.arraycopy(puzzle[i], 0, grid, i * puzzle.length, puzzle.length);
+        }
+        return grade(geometry, grid);
+    }
+
+    /** Grades a puzzle in a flat array
+     *
+     * @throws IllegalArgumentException if the size is not a perfect square
+     * @param geometry the geometry of the board
+     * @param grid the numbers of the puzzle in a flat array
+     * @return the grade
+     */
+    Grade grade(BoardGeometry geometry, int[] grid) {
+        if (!geometry.isSquare()) {
+            throw new IllegalArgumentException("size of board must be a perfect square");
+        }
+        long[] counts = new long[Technique.values().length];
+        if (!AbstractSolver.givenNumbersAreLegal(geometry, grid)) {
+            return new Grade(counts, null, 0, false);
+        }
+        CandidateGrid candidates = new CandidateGrid(geometry, grid);
+        int hardestLevel = 0;
+        search:
+        while (candidates.emptyBoxes > 0) {
+            for (int level = 1; level <= LEVELS.length; level++) {
+                int found = use(LEVELS[level - 1], candidates, counts);
+                if (found < 0) {
+                    break search;
+                }
+                if (found > 0) {
+                    hardestLevel = Math.max(hardestLevel, level);
+                    continue search;
+                }
+            }
+            break;
+        }
+        Technique hardest = hardestLevel == 0 ? null : LEVELS[hardestLevel - 1];
+        return new Grade(counts, hardest, hardestLevel, candidates.emptyBoxes == 0);
+    }
+
+    /** Uses a technique everywhere on the grid once
+     * The singles and the locked candidates are the steps of the propagation of Sudoku.CandidateGrid
+     *
+     * @param technique the technique
+     * @param grid the grid
+     * @param counts how many times every technique was used, increased here
+     * @return how many times it filled boxes or removed candidates, or -1 if the puzzle has no solution
+     */
+    private static int use(Technique technique, CandidateGrid grid, long[] counts) {
+        int found;
+        switch (technique) {
+            case NAKED_SINGLE:
+                return grid.nakedSingles(counts);
+            case HIDDEN_SINGLE:
+                return grid.hiddenSingles(counts);
+            case LOCKED_CANDIDATES:
+                return grid.lockedCandidates(counts);
+            case NAKED_PAIR:
+                found = nakedPairs(grid);
+                break;
+            case HIDDEN_PAIR:
+                found = hiddenPairs(grid);
+                break;
+            case X_WING:
+                found = fish(grid, 2);
+                break;
+            case SWORDFISH:
+                found = fish(grid, 3);
+                break;
+            case SIMPLE_COLORING:
+                found = simpleColoring(grid);
+                break;
+            default:
+                return 0;
+        }
+        if (found > 0) {
+            counts[technique.ordinal()] += found;
+        }
+        return found;
+    }
+
+    /** Naked pairs: if two boxes of a unit have the same two candidates, those two numbers go in those two boxes,
+     * so they are removed from the other boxes of the unit
+     *
+     * @param grid the grid
+     * @return how many boxes lost candidates, or -1 if the puzzle has no solution
+     */
+    private static int nakedPairs(CandidateGrid grid) {
+        int found = 0;
+        for (int[] unit : grid.geometry.units) {
+            for (int i = 0; i < unit.length; i++) {
+                long pair = grid.candidates[unit[i]];
+                if (grid.values[unit[i]] != 0 || Long.bitCount(pair) != 2) {
+                    continue;
+                }
+                for (int j = i + 1; j < unit.length; j++) {
+                    if (grid.values[unit[j]] == 0 && grid.candidates[unit[j]] == pair) {
+                        for (int box : unit) {
+                            if (box != unit[i] && box != unit[j] && (grid.candidates[box] & pair) != 0) {
+                                if (!grid.eliminate(box, pair)) {
+                                    return -1;
+                                }
+                                found++;
+                            }
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /** Hidden pairs: if two numbers fit only in the same two boxes of a unit, those boxes can't have
+     * any other number
+     *
+     * @param grid the grid
+     * @return how many boxes lost candidates, or -1 if the puzzle has no solution
+     */
+    private static int hiddenPairs(CandidateGrid grid) {
+        int size = grid.geometry.size;
+        long[] places = new long[size];
+        int found = 0;
+        for (int[] unit : grid.geometry.units) {
+            for (int number = 0; number < size; number++) {
+                places[number] = 0;
+            }
+            for (int i = 0; i < unit.length; i++) {
+                if (grid.values[unit[i]] == 0) {
+                    for (long rest = grid.candidates[unit[i]]; rest != 0; rest &= rest - 1) {
+                        places[Long.numberOfTrailingZeros(rest)] |= 1L << i;
+                    }
+                }
+            }
+            for (int first = 0; first < size; first++) {
+                if (Long.bitCount(places[first]) != 2) {
+                    continue;
+                }
+                for (int second = first + 1; second < size; second++) {
+                    if (places[second] == places[first]) {
+                        long pair = (1L << first) | (1L << second);
+                        for (long rest = places[first]; rest != 0; rest &= rest - 1) {
+                            int box = unit[Long.numberOfTrailingZeros(rest)];
+                            long others = grid.candidates[box] & ~pair;
+                            if (others != 0) {
+                                if (!grid.eliminate(box, others)) {
+                                    return -1;
+                                }
+                                found++;
+                            }
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /** X-wing (fish of 2 lines) and swordfish (fish of 3 lines), with rows and columns both ways
+     * If a number fits in the same fishSize columns of fishSize rows, one of those rows has it in every one
+     * of those columns, so the number is removed from the other rows of those columns
+     *
+     * @param grid the grid
+     * @param fishSize how many lines
+     * @return how many boxes lost candidates, or -1 if the puzzle has no solution
+     */
+    private static int fish(CandidateGrid grid, int fishSize) {
+        BoardGeometry geometry = grid.geometry;
+        int size = geometry.size;
+        long[] places = new long[size];
+        int found = 0;
+        for (int number = 1; number <= size; number++) {
+            long bit = Board.bit(number);
+            for (int[][] lines : new int[][][]{geometry.rowBoxes, geometry.columnBoxes}) {
+                for (int line = 0; line < size; line++) {
+                    places[line] = 0;
+                    for (int k = 0; k < size; k++) {
+                        int box = lines[line][k];
+                        if (grid.values[box] == 0 && (grid.candidates[box] & bit) != 0) {
+                            places[line] |= 1L << k;
+                        }
+                    }
+                }
+                int result = fishSize == 2 ? xWings(grid, lines, places, bit) : swordfish(grid, lines, places, bit);
+                if (result < 0) {
+                    return -1;
+                }
+                found += result;
+            }
+        }
+        return found;
+    }
+
+    /** The fish of 2 lines: two lines where the number fits in the same two places
+     *
+     * @param grid the grid
+     * @param lines the boxes of the lines (rows or columns)
+     * @param places the places of the number in every line, as a mask of the indexes in the line
+     * @param bit the bit of the number
+     * @return how many boxes lost the number, or -1 if the puzzle has no solution
+     */
+    private static int xWings(CandidateGrid grid, int[][] lines, long[] places, long bit) {
+        int found = 0;
+        for (int a = 0; a < places.length; a++) {
+            if (Long.bitCount(places[a]) != 2) {
+                continue;
+            }
+            for (int b = a + 1; b < places.length; b++) {
+                if (places[b] == places[a]) {
+                    int result = removeFromCrossLines(grid, lines, places[a], bit, a, b, -1);
+                    if (result < 0) {
+                        return -1;
+                    }
+                    found += result;
+                }
+            }
+        }
+        return found;
+    }
+
+    /** The fish of 3 lines: three lines where the number fits in 2 or 3 places, all inside the same three places
+     *
+     * @param grid the grid
+     * @param lines the boxes of the lines (rows or columns)
+     * @param places the places of the number in every line, as a mask of the indexes in the line
+     * @param bit the bit of the number
+     * @return how many boxes lost the number, or -1 if the puzzle has no solution
+     */
+    private static int swordfish(CandidateGrid grid, int[][] lines, long[] places, long bit) {
+        int found = 0;
+        for (int a = 0; a < places.length; a++) {
+            if (!canBeInFish(places[a])) {
+                continue;
+            }
+            for (int b = a + 1; b < places.length; b++) {
+                if (!canBeInFish(places[b]) || Long.bitCount(places[a] | places[b]) > 3) {
+                    continue;
+                }
+                for (int c = b + 1; c < places.length; c++) {
+                    long cover = places[a] | places[b] | places[c];
+                    if (canBeInFish(places[c]) && Long.bitCount(cover) == 3) {
+                        int result = removeFromCrossLines(grid, lines, cover, bit, a, b, c);
+                        if (result < 0) {
+                            return -1;
+                        }
+                        found += result;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /** Tells if a line can be one of the lines of a swordfish
+     *
+     * @param places the places of the number in the line
+     * @return true if the number fits in 2 or 3 places of the line
+     */
+    private static boolean canBeInFish(long places) {
+        int count = Long.bitCount(places);
+        return count == 2 || count == 3;
+    }
+
+    /** Removes a number from the boxes of the crossing lines of a fish that are not on the lines of the fish
+     *
+     * @param grid the grid
+     * @param lines the boxes of the lines (rows or columns)
+     * @param cover the crossing lines
+     * @param bit the bit of the number
+     * @param a first line of the fish
+     * @param b second line of the fish
+     * @param c third line of the fish, -1 for an X-wing
+     * @return how many boxes lost the number, or -1 if the puzzle has no solution
+     */
+    private static int removeFromCrossLines(CandidateGrid grid, int[][] lines, long cover, long bit, int a, int b, int c) {
+        int found = 0;
+        for (int line = 0; line < lines.length; line++) {
+            if (line == a || line == b || line == c) {
+                continue;
+            }
+            for (long rest = cover; rest != 0; rest &= rest - 1) {
+                int box = lines[line][Long.numberOfTrailingZeros(rest)];
+                if ((grid.candidates[box] & bit) != 0) {
+                    if (!grid.eliminate(box, bit)) {
+                        return -1;
+                    }
+                    found++;
+                }
+            }
+        }
+        return found;
+    }
+
+    /** Simple coloring for every number: the boxes linked by conjugate pairs (units where the number fits
+     * in only two boxes) get two alternating colors. If two boxes of the same color see each other, that color is
+     * false and the number is removed from all its boxes. Otherwise, a box that sees both colors of a chain
+     * can't have the number
+     *
+     * @param grid the grid
+     * @return how many boxes lost candidates, or -1 if the puzzle has no solution
+     */
+    private static int simpleColoring(CandidateGrid grid) {
+        BoardGeometry geometry = grid.geometry;
+        int[][] peers = geometry.peers();
+        int boxes = geometry.numberOfBoxes;
+        int[] color = new int[boxes];
+        int[] linkStart = new int[boxes];
+        int[] linkNext = new int[2 * geometry.units.length];
+        int[] linkTo = new int[2 * geometry.units.length];
+        int[] stack = new int[boxes];
+        int[] seen = new int[2 * boxes + 2];
+        int stamp = 0; //a color was seen by the box that is checked now if seen[color] == stamp
+        int found = 0;
+        for (int number = 1; number <= geometry.size; number++) {
+            long bit = Board.bit(number);
+            Arrays.fill(color, 0);
+            Arrays.fill(linkStart, -1);
+            int links = 0;
+            for (int[] unit : geometry.units) {
+                int first = -1, second = -1, count = 0;
+                for (int box : unit) {
+                    if (grid.values[box] == 0 && (grid.candidates[box] & bit) != 0) {
+                        if (count == 0) {
+                            first = box;
+                        } else {
+                            second = box;
+                        }
+                        count++;
+                    }
+                }
+                if (count == 2) {
+                    linkTo[links] = second;
+                    linkNext[links] = linkStart[first];
+                    linkStart[first] = links++;
+                    linkTo[links] = first;
+                    linkNext[links] = linkStart[second];
+                    linkStart[second] = links++;
+                }
+            }
+            if (links == 0) {
+                continue;
+            }
+            int colors = 0;
+            for (int box = 0; box < boxes; box++) {
+                if (linkStart[box] < 0 || color[box] != 0) {
+                    continue;
+                }
+                colors += 2; //the chain gets the colors colors-1 and colors
+                color[box] = colors - 1;
+                int top = 0;
+                stack[top++] = box;
+                while (top > 0) {
+                    int current = stack[--top];
+                    for (int link = linkStart[current]; link >= 0; link = linkNext[link]) {
+                        int other = linkTo[link];
+                        if (color[other] == 0) {
+                            color[other] = opposite(color[current]);
+                            stack[top++] = other;
+                        }
+                    }
+                }
+            }
+            int falseColor = 0;
+            for (int box = 0; box < boxes && falseColor == 0; box++) {
+                if (color[box] != 0) {
+                    for (int peer : peers[box]) {
+                        if (color[peer] == color[box]) {
+                            falseColor = color[box];
+                            break;
+                        }
+                    }
+                }
+            }
+            if (falseColor != 0) {
+                for (int box = 0; box < boxes; box++) {
+                    if (color[box] == falseColor) {
+                        if (!grid.eliminate(box, bit)) {
+                            return -1;
+                        }
+                        found++;
+                    }
+                }
+                continue;
+            }
+            for (int box = 0; box < boxes; box++) {
+                if (grid.values[box] != 0 || color[box] != 0 || (grid.candidates[box] & bit) == 0) {
+                    continue;
+                }
+                stamp++;
+                boolean trapped = false;
+                for (int peer : peers[box]) {
+                    if (color[peer] != 0) {
+                        seen[color[peer]] = stamp;
+                        if (seen[opposite(color[peer])] == stamp) {
+                            trapped = true;
+                            break;
+                        }
+                    }
+                }
+                if (trapped) {
+                    if (!grid.eliminate(box, bit)) {
+                        return -1;
+                    }
+                    found++;
+                }
+            }
+        }
+        return found;
+    }
+
+    /** The other color of the same chain: the chains have the colors 1 and 2, 3 and 4...
+     *
+     * @param color a color
+     * @return the other color of its chain
+     */
+    private static int opposite(int color) {
+        return color % 2 == 1 ? color + 1 : color - 1;
+    }
+
+    /** Grades all the puzzles of a classic file and writes them in another file with the score after the code
+     * eg the line "4" becomes "4 23". A score that is already there is replaced
+     * The puzzles are read and graded in batches, every batch in parallel on all the cores
+     *
+     * @throws IOException if there is a problem with the files
+     * @throws NumberFormatException if a puzzle is not stored the right way
+     * @param fileName the name of the file with the puzzles
+     * @param gradedFileName the name of the file that is written
+     * @return how many puzzles were graded
+     */
+    public static int gradeFile(String fileName, String gradedFileName) throws IOException {
+        String newLine = lineSeparatorOf(fileName);
+        Grader grader = new Grader();
+        int graded = 0;
+        try (BufferedReader read = new BufferedReader(new FileReader(fileName));
+             BufferedWriter write = new BufferedWriter(new FileWriter(gradedFileName))) {
+            List<Integer> codes = new ArrayList<>();
+            List<String[]> rows = new ArrayList<>();
+            String line;
+            while ((line = read.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                int code = ClassicBoard.codeOf(line);
+                if (code < 0) {
+                    throw new NumberFormatException("expected the code of a puzzle, found: " + line);
+                }
+                String firstRow = read.readLine();
+                if (firstRow == null) {
+                    throw new NumberFormatException("file ended after the code " + code);
+                }
+                int size = firstRow.trim().split(" ").length;
+                String[] puzzle = new String[size];
+                puzzle[0] = firstRow;
+                for (int i = 1; i < size; i++) {
+                    puzzle[i] = read.readLine();
+                    if (puzzle[i] == null) {
+                        throw new NumberFormatException("file ended inside the puzzle " + code);
+                    }
+                }
+                codes.add(code);
+                rows.add(puzzle);
+                if (codes.size() == BATCH) {
+                    graded += writeBatch(grader, codes, rows, write, newLine);
+                }
+            }
+            graded += writeBatch(grader, codes, rows, write, newLine);
+        }
+        return graded;
+    }
+
+    /** Grades a batch in parallel and writes it in the order it was read
+     *
+     * @return how many puzzles were written
+     */
+    private static int writeBatch(Grader grader, List<Integer> codes, List<String[]> rows, BufferedWriter write,
+                                  String newLine) throws IOException {
+        int[] scores = IntStream.range(0, codes.size()).parallel()
+                .map(i -> grader.grade(parse(rows.get(i))).getScore())
+                .toArray();
+        for (int i = 0; i < scores.length; i++) {
+            write.write(codes.get(i) + " " + scores[i] + newLine);
+            for (String row : rows.get(i)) {
+                write.write(row + newLine);
+            }
+        }
+        int written = scores.length;
+        codes.clear();
+        rows.clear();
+        return written;
+    }
+
+    /** Turns the rows of a puzzle, as they are written in the file, to the numbers of the puzzle
+     *
+     * @throws NumberFormatException if a row doesn't have numbers
+     * @param rows the rows of the puzzle, with the numbers separated by spaces
+     * @return the numbers of the puzzle, 0 for the empty boxes
+     */
+    private static int[][] parse(String[] rows) {
+        int[][] puzzle = new int[rows.length][rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            String[] numbers = rows[i].trim().split(" ");
+            for (int j = 0; j < rows.length; j++) {
+                puzzle[i][j] = Integer.parseInt(numbers[j]);
+            }
+        }
+        return puzzle;
+    }
+
+    /** Finds if a file uses the line endings of Windows, so that a graded file keeps them
+     *
+     * @throws IOException if there is a problem with the file
+     * @param fileName the name of the file
+     * @return the line separator of the file
+     */
+    static String lineSeparatorOf(String fileName) throws IOException {
+        try (Reader read = new FileReader(fileName)) {
+            int character;
+            while ((character = read.read()) != -1) {
+                if (character == '\n') {
+                    return "\n";
+                }
+                if (character == '\r') {
+                    return "\r\n";
+                }
+            }
+        }
+        return System.lineSeparator();
+    }
+
+    /** Reads the scores that gradeFile wrote in a file, or the ones of a binary puzzle file (see Sudoku.PuzzleStore)
+     *
+     * @throws IOException if there is a problem with the file
+     * @param fileName the name of the file
+     * @return the score of every code that has one
+     */
+    public static HashMap<Integer, Integer> readGrades(String fileName) throws IOException {
+        HashMap<Integer, Integer> grades = new HashMap<>();
+        if (PuzzleStore.isStore(fileName)) {
+            PuzzleStore store = PuzzleStore.of(fileName);
+            int[] codes = store.codes();
+            for (int record = 0; record < codes.length; record++) {
+                if (store.gradeOf(record) >= 0) {
+                    grades.put(codes[record], store.gradeOf(record));
+                }
+            }
+            return grades;
+        }
+        try (BufferedReader read = new BufferedReader(new FileReader(fileName))) {
+            String line;
+            while ((line = read.readLine()) != null) {
+                int grade = ClassicBoard.gradeOf(line);
+                if (grade >= 0) {
+                    grades.put(ClassicBoard.codeOf(line), grade);
+                }
+            }
+        }
+        return grades;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: Grader <file>");
+            return;
+        }
+        long start = System.nanoTime();
+        String graded = args[0] + ".graded";
+        int count = gradeFile(args[0], graded);
+        Files.move(Paths.get(graded), Paths.get(args[0]), StandardCopyOption.REPLACE_EXISTING);
+        System.out.println("Graded " + count + " puzzles (" + (System.nanoTime() - start) / 1_000_000 + " ms)");
+    }
+}
@@ -0,0 +1,100 @@
+package sudoku;
+
+/**@author Alexandros Stergiopoulos & Christos Christidis
+ *
+ * The class Sudoku.GridSearch is the search that all the solvers and generators share: it propagates a grid and,
+ * if it isn't solved, guesses every candidate of the box with the fewest candidates (minimum remaining values)
+ * and goes on with a copy of the grid for every candidate of that box
+ * The grid can be a Sudoku.CandidateGrid or a Sudoku.KillerGrid, which adds its own rules to the propagation
+ * The subclasses say what happens to a solution (solved) and can search the guesses another way (guess), eg in
+ * other threads, or stop the search from outside (stopped)
+ * A search can also have a budget of guesses: when it runs out, the search stops and gaveUp tells so
+ *
+ */
+abstract class GridSearch {
+    /**
+     * How many times every technique was used, in the order of Technique.values()
+     */
+    final long[] techniqueCounts = new long[Technique.values().length];
+
+    private long nodes;
+    private long guessesLeft = Long.MAX_VALUE;
+
+    /** Setter for the budget of guesses, for the searches that must give up instead of taking too long
+     *
+     * @param guesses the most guesses the next search can make
+     */
+    void setGuesses(long guesses) {
+        guessesLeft = guesses;
+    }
+
+    /** Tells if the last search stopped because it ran out of guesses
+     *
+     * @return true if the search gave up
+     */
+    boolean gaveUp() {
+        return guessesLeft < 0;
+    }
+
+    /** Getter for nodes
+     *
+     * @return how many guesses have been made
+     */
+    long getNodes() {
+        return nodes;
+    }
+
+    /** Propagates the grid and, if it isn't solved, guesses every candidate of the box with the fewest candidates
+     *
+     * @param grid the grid, which is changed
+     * @return true when the search must stop: solved said so, a guess said so or there are no guesses left
+     */
+    final boolean search(CandidateGrid grid) {
+        if (stopped() || !grid.propagate(techniqueCounts)) {
+            return false;
+        }
+        if (grid.emptyBoxes == 0) {
+            return solved(grid);
+        }
+        int box = grid.boxWithFewestCandidates();
+        long options = grid.candidates[box];
+        while (options != 0 && !stopped()) {
+            if (--guessesLeft < 0) {
+                return true;
+            }
+            long bit = options & -options;
+            options &= options - 1;
+            nodes++;
+            CandidateGrid guess = options == 0 ? grid : grid.copy(); //the last guess doesn't need a copy
+            if (guess.assign(box, Long.numberOfTrailingZeros(bit) + 1) && guess(guess, options == 0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Searches a grid where a guess has been made, by default right now in this search
+     *
+     * @param guess the grid with the guess
+     * @param last if it is the last guess of its box
+     * @return true when the search must stop
+     */
+    boolean guess(CandidateGrid guess, boolean last) {
+        return search(guess);
+    }
+
+    /** Tells if the search must stop because of something outside it, by default never
+     *
+     * @return true to stop
+     */
+    boolean stopped() {
+        return false;
+    }
+
+    /** Called for every solution that is found
+     *
+     * @param grid the solved grid, which the search doesn't use anymore
+     * @return true when enough solutions have been found and the search must stop
+     */
+    abstract boolean solved(CandidateGrid grid);
+}
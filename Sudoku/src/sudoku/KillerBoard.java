@@ -2,11 +2,9 @@ package sudoku;
 
 import java.awt.*;
 import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.Writer;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
 
 /**@author Alexandros Stergiopoulos & Christos Christidis
  *
@@ -24,17 +22,32 @@ public class KillerBoard extends ClassicBoard {
     /** To store the Killer Sudoku.Board, except the fields of Sudoku.ClassicBoard, we need
      * to somehow store the color groups with their sum and to match the boxes with their
      * color group
-     * For the storing of the sums, a HashMap is used where the key is an Integer that stores the color code
-     * and the value is another integer holding the sum of the specific color code. The usage of an
-     * Integer for a key happened to keep the logic separate from the GUI, and also because the board doesn't
-     * have a rule about how many color groups there will be. Eg one killer board may have 29 color codes
-     * and another can have 38. So the idea of having a String as a key that stores the specific color
-     * that will be used. But to keep the idea of coloring the groups, there is a private field of an array
+     * The color codes of a puzzle are the numbers from 1 up to the number of color groups, so they are used as
+     * indexes of plain int arrays: cageOf has the color code of every box (in the flat order of boxes, the box x,y
+     * is x*size+y) and cageTarget has the sum of every color code. The usage of an integer for a code happened
+     * to keep the logic separate from the GUI, and also because the board doesn't have a rule about how many
+     * color groups there will be. Eg one killer board may have 29 color codes and another can have 38.
+     * But to keep the idea of coloring the groups, there is a private field of an array
      * of Colors. For this version, there are 12 different colors, but there are methods to add colors
+     * Before a puzzle is loaded, all the boxes are in the color code 0 with sum 0
      */
     private ArrayList<Color> colors;
-    private HashMap<Integer, Integer> colorSums;
-    private int[][] colorBoard;
+    private int[] cageOf;
+    private int[] cageTarget;
+
+    /**
+     * The cage index, so that checkColor doesn't have to scan the whole board:
+     * the boxes of every color code, and the sum and the number of filled boxes of every color code,
+     * kept up to date by place and delete
+     */
+    private int[][] cageBoxes;
+    private int[] cageSum;
+    private int[] cageFilled;
+
+    /**
+     * The numbers that a color group can have for every number of boxes and sum, shared by all boards of this size
+     */
+    private final KillerCombinations combinations;
 
     /** General constructor without a code for puzzle
      *
@@ -44,8 +57,10 @@ public class KillerBoard extends ClassicBoard {
      */
     public KillerBoard(int size, int puzzles,boolean wordoku){
         super(size,puzzles, wordoku);
-        colorBoard= new int[size][size];
-        colorSums= new HashMap<>();
+        cageOf= new int[geometry.numberOfBoxes];
+        cageTarget= new int[1];
+        combinations= KillerCombinations.of(size);
+        buildCageIndex();
         final Color VERY_LIGHT_RED = new Color(255, 101, 121);
         final Color VERY_LIGHT_GREEN = new Color(88, 144, 79);
         final Color LIGHT_YELLOW = new Color(254, 225, 162);
@@ -65,12 +80,25 @@ public class KillerBoard extends ClassicBoard {
     }
 
 
-    /** Default constructor used in this version with 9 for size and 10 for No of puzzles
+    /** Makes a killer board whose puzzle doesn't come from a puzzle file, eg a generated one
+     * No puzzle file is read or indexed, the codes are the ones of the shipped files until useCodesOf is called
+     *
+     * @throws IllegalArgumentException for a size that is not positive or is greater than 64
+     * @param size the size of the board
+     * @param wordoku is wordoku or not
+     * @return the board, with code 0 and no color groups
+     */
+    static KillerBoard withoutFile(int size, boolean wordoku) {
+        return new KillerBoard(size, PuzzleCatalog.DEFAULT_COUNT, wordoku);
+    }
+
+    /** Default constructor used in this version with 9 for size and the puzzles of the file "Killer Sudoku Puzzles.txt"
      *
      * @param wordoku is wordoku of not
      */
     public KillerBoard(boolean wordoku){
-        this(9,10,wordoku);
+        this(9,PuzzleCatalog.DEFAULT_COUNT,wordoku);
+        useCodesOf("Killer Sudoku Puzzles.txt");
     }
 
     /** General constructor for board with code and initialization
@@ -95,11 +123,17 @@ public class KillerBoard extends ClassicBoard {
 
     /** Constructor to load a specific board from this version
      *
+     * @throws IllegalArgumentException if the file "Killer Sudoku Puzzles.txt" has no puzzle with the code
      * @param wordoku is wordoku or not
      * @param code code of Killer Sudoku.Board
      */
     public KillerBoard( boolean wordoku, int code){
-        this(9,10,wordoku,code,"Killer Sudoku Puzzles.txt");
+        this(wordoku);
+        if(!hasCode(code)){
+            throw new IllegalArgumentException("there is no puzzle with code " + code);
+        }
+        this.code=code;
+        loadBoard("Killer Sudoku Puzzles.txt");
     }
 
     /** Method to create and add a new RGB color. Based on the three int RGB params, a new color is created and then added to
@@ -149,19 +183,23 @@ public class KillerBoard extends ClassicBoard {
 
     /** Method used by GUI to color the boxes
      *
-     * @return the entire  colorBoard
+     * @param x number of row
+     * @param y number of column
+     * @return the color code of the box in position x,y
      */
+    int getCageId(int x, int y){
+        return cageOf[geometry.box(x, y)];
+    }
 
-     int[][] getColorBoard(){return colorBoard;}
-
-    /** Method needs overriding, but it only changes the HashSet parameter on the method findNonPlayedGame
+    /** Method needs overriding, but it only changes the won codes that are given to the method findNonPlayedGame
      *
      * @param player a player needed for their stats
      * @param fileName the name of the file that contains the puzzles
      */
     @Override
     public void startNewGameForPlayer(Player player, String fileName){
-        findNonPlayedGame(player.getKillerSudokuGamesWon());
+        useCodesOf(fileName);
+        findNonPlayedGame(player.getKillerUnplayed(getCodes()));
         loadBoard(fileName);
     }
 
@@ -189,9 +227,9 @@ public class KillerBoard extends ClassicBoard {
 ////        }
 ////    }
 
-    /** Loads the board, specifically fills the colorBoard and the HashMap colorSums
-     * Called always after the object has been given a code either by the method findNonPlayedGame
-     * or by a constructor.
+    /** Reads a killer puzzle, specifically fills the color codes of the boxes and the sums of the color codes
+     * Called by loadBoard of Sudoku.ClassicBoard always after the object has been given a code either by the
+     * method findNonPlayedGame or by a constructor, just after the line with the code has been read.
      * The file has a specific way to store a board. Firstly, the code of the board is on the first row alone
      * Below that is the colorBoard, which is a 9x9 area filled with numbers representing
      * the colorGroup the position belongs all separated with a space. Eg if in a row the first 4 boxes are on the color
@@ -213,41 +251,244 @@ public class KillerBoard extends ClassicBoard {
      * 27 27 26 26 28 28 29 29 24
      * 1 24,2 13,3 15,4 22,5 14,6 17,7 5,8 14,9 5,10 6,11 13,...
      * The way these are stored is to help separate them with String method split
+     * The color codes must be all the numbers from 1 up to the number of color groups, and every one of them must
+     * have exactly one sum. A sum for a code that no box has is ignored. The board changes only if the whole
+     * puzzle is right
      *
      * @throws IOException if something goes wrong with the file that has the puzzles stored
-     * @param fileName the name of the file that stores the killer sudoku puzzles
+     * @throws NumberFormatException if the killer board is not stored the right way
+     * @param read the reader of the file, just after the line with the code
      */
     @Override
-    protected void loadBoard(String fileName){
-        try (BufferedReader read = new BufferedReader(new FileReader(fileName))) {
-            String line;
-            while ((line = read.readLine()) != null) {
-                if (line.equals(Integer.toString(code))) {
-                    for (int i = 0; i < sizeOfBlock; i++) {
-                        line = read.readLine();
-                        String[] row = line.split(" ");
-                        for (int j = 0; j < sizeOfBlock; j++) {
-                            int temp= Integer.parseInt(row[j]);
-                            colorBoard[i][j] = temp;
-                        }
-                    }
-                    line=read.readLine();
-                    String[] colorCodes=line.split(",");
-                    for(String codes:colorCodes){
-                        String[] codeSum=codes.split(" ");
-                        int code=Integer.parseInt(codeSum[0]);
-                        int sum=Integer.parseInt(codeSum[1]);
-                        colorSums.put(code,sum);
-                    }
+    void readPuzzle(BufferedReader read) throws IOException {
+        String line;
+        int[] colorCodesOfBoxes = new int[geometry.numberOfBoxes];
+        int cages = 0;
+        for (int i = 0; i < sizeOfBlock; i++) {
+            line = read.readLine();
+            if (line == null) {
+                throw new NumberFormatException("file ended inside a killer puzzle");
+            }
+            String[] row = line.trim().split(" ");
+            for (int j = 0; j < sizeOfBlock; j++) {
+                int temp= Integer.parseInt(row[j]);
+                if (temp < 1) {
+                    throw new NumberFormatException("color code must be positive");
                 }
+                colorCodesOfBoxes[geometry.box(i, j)] = temp;
+                cages = Math.max(cages, temp);
+            }
+        }
+        boolean[] used = new boolean[cages + 1];
+        for (int color : colorCodesOfBoxes) {
+            used[color] = true;
+        }
+        for (int color = 1; color <= cages; color++) {
+            if (!used[color]) {
+                throw new NumberFormatException("color codes must go from 1 to " + cages + " without gaps, " + color + " is missing");
+            }
+        }
+        line=read.readLine();
+        if (line == null) {
+            throw new NumberFormatException("file ended before the sums of the killer puzzle");
+        }
+        int[] sums = new int[cages + 1];
+        String[] colorCodes=line.split(",");
+        for(String codes:colorCodes){
+            String[] codeSum=codes.trim().split(" ");
+            int code=Integer.parseInt(codeSum[0]);
+            int sum=Integer.parseInt(codeSum[1]);
+            if (code < 1 || sum < 1) {
+                throw new NumberFormatException("color codes and sums must be positive");
+            }
+            if (code > cages) {
+                continue;
+            }
+            if (sums[code] != 0) {
+                throw new NumberFormatException("color code " + code + " has two sums");
+            }
+            sums[code] = sum;
+        }
+        for (int color = 1; color <= cages; color++) {
+            if (sums[color] == 0) {
+                throw new NumberFormatException("color code " + color + " has no sum");
+            }
+        }
+        cageOf = colorCodesOfBoxes;
+        cageTarget = sums;
+        buildCageIndex();
+    }
+
+    /** Loads a killer puzzle that doesn't come from the file, eg one made by Sudoku.KillerGenerator
+     * The numbers of the board are deleted and the code becomes 0, because the puzzle has no code
+     * The color codes must be the numbers from 1 up to the number of color groups, like in the file
+     *
+     * @param cageIds the color code of every box, in the flat order of boxes
+     * @param sums the sum of every color code, indexed by the code (index 0 is not used)
+     */
+    void loadCages(int[] cageIds, int[] sums){
+        for (int i = 0; i < sizeOfBlock; i++) {
+            for (int j = 0; j < sizeOfBlock; j++) {
+                delete(i, j);
+            }
+        }
+        cageOf = cageIds;
+        cageTarget = sums;
+        buildCageIndex();
+        code = 0;
+    }
+
+    /** Writes the color codes and the sums of the puzzle the way readPuzzle reads them, without the line of the code
+     *
+     * @throws IOException if something goes wrong with the writer
+     * @param write where the puzzle is written
+     * @param newLine the line separator
+     */
+    void writePuzzle(Writer write, String newLine) throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < sizeOfBlock; i++) {
+            for (int j = 0; j < sizeOfBlock; j++) {
+                text.append(j == 0 ? "" : " ").append(cageOf[geometry.box(i, j)]);
+            }
+            text.append(newLine);
+        }
+        for (int color = 1; color < cageTarget.length; color++) {
+            text.append(color == 1 ? "" : ",").append(color).append(' ').append(cageTarget[color]);
+        }
+        text.append(newLine);
+        write.write(text.toString());
+    }
+
+    /** Reads the color codes and the sums of a killer puzzle of a binary puzzle file
+     * The file was checked by readPuzzle when it was converted, so the codes go from 1 up to the number of groups
+     *
+     * @param store the binary puzzle file
+     * @param record the record of the puzzle
+     */
+    @Override
+    void readPuzzle(PuzzleStore store, int record) {
+        int[] colorCodesOfBoxes = new int[geometry.numberOfBoxes];
+        int cages = 0;
+        for (int box = 0; box < colorCodesOfBoxes.length; box++) {
+            colorCodesOfBoxes[box] = store.cageOf(record, box);
+            cages = Math.max(cages, colorCodesOfBoxes[box]);
+        }
+        int[] sums = new int[cages + 1];
+        for (int color = 1; color <= cages; color++) {
+            sums[color] = store.sumOf(record, color);
+        }
+        cageOf = colorCodesOfBoxes;
+        cageTarget = sums;
+        buildCageIndex();
+    }
+
+    /** The killer puzzles have the line with the sums of the color codes after their rows
+     *
+     * @return true
+     */
+    @Override
+    boolean hasSumsLine(){
+        return true;
+    }
+
+    /** Builds the cage index from the color codes and the numbers already on the board
+     * Called every time the color codes change
+     */
+    private void buildCageIndex(){
+        int cages=cageTarget.length;
+        int[] counts=new int[cages];
+        for(int color:cageOf){
+            counts[color]++;
+        }
+        cageBoxes=new int[cages][];
+        for(int color=0;color<cages;color++){
+            cageBoxes[color]=new int[counts[color]];
+        }
+        cageSum=new int[cages];
+        cageFilled=new int[cages];
+        int[] next=new int[cages];
+        for(int box=0;box<cageOf.length;box++){
+            int color=cageOf[box];
+            cageBoxes[color][next[color]++]=box;
+            if(boxes[box]!=0){
+                cageSum[color]+=boxes[box];
+                cageFilled[color]++;
             }
-        } catch (IOException exc) {
-            System.out.println("Problem with file");
-        } catch (NumberFormatException exc){
-            System.err.println("Problem with storing of the killer board in file");
         }
     }
 
+    /** Place needs overriding so that the sum of the color group is updated after the move
+     *
+     * @param x number of row
+     * @param y number of column
+     * @param number number that is put
+     */
+    @Override
+    void place(int x, int y, int number){
+        super.place(x, y, number); //deletes the old number first, through the delete of this class
+        int color=cageOf[geometry.box(x, y)];
+        cageSum[color]+=number;
+        cageFilled[color]++;
+    }
+
+    /** Delete needs overriding so that the sum of the color group is updated after the move
+     *
+     * @param x number of row
+     * @param y number of column
+     */
+    @Override
+    void delete(int x, int y){
+        int box=geometry.box(x, y);
+        if(boxes[box]!=0){
+            cageSum[cageOf[box]]-=boxes[box];
+            cageFilled[cageOf[box]]--;
+        }
+        super.delete(x, y);
+    }
+
+    /** Makes a board with the same size, color codes and sums but no numbers, for the solvers that
+     * need a board to play on
+     *
+     * @return the empty copy of the killer board
+     */
+    @Override
+    Board emptyCopy(){
+        KillerBoard copy= new KillerBoard(sizeOfBlock, getNumberOfPuzzles(), isWordoku());
+        copy.cageOf=cageOf; //they never change after a puzzle is read, so they can be shared
+        copy.cageTarget=cageTarget;
+        copy.buildCageIndex();
+        return copy;
+    }
+
+    /** The killer solver knows the rule of the color sums, so it is the one that can tell if a killer puzzle
+     * has one solution
+     *
+     * @return a new solver for the killer board
+     */
+    @Override
+    Solver newSolver(){
+        return new KillerSolver();
+    }
+
+    /** Gives the color code of every box, in the flat order of boxes, for the killer solver
+     * The array is not copied, so it must not be changed
+     *
+     * @return the color codes of the boxes
+     */
+    int[] getCageIds(){
+        return cageOf;
+    }
+
+    /** Gives the sum of every color code, indexed by the code, for the killer solver
+     * The array is not copied, so it must not be changed
+     *
+     * @return the sums of the color codes
+     */
+    int[] getCageSums(){
+        return cageTarget;
+    }
+
+
     /** Check method needs overriding because there are new rules
      * the number 4 is returned when the number the player wants to put breaks the rule
      * of the color sum.
@@ -267,6 +508,7 @@ public class KillerBoard extends ClassicBoard {
     }
 
     /** Method to check if the number will somehow break the rule
+     * It only reads the cage index, so it takes the same time for every size of color group
      * The ways that the rule can be broken are these:
      * 1) If you put this number, the sum will be greater that the one needed to be placed
      * 2) If you put the number, the sum is exactly as it needs to be, but there are empty
@@ -285,21 +527,11 @@ public class KillerBoard extends ClassicBoard {
         if(number<1 || number>sizeOfBlock){ //weird result but must be like that so the super.check
             return true;                    // will decline the number with the right mistake code
         }
-        int maxSum=colorSums.get(colorBoard[x][y]);
-        int blocksOfColor=0;
-        int blocksOfColorFilled=0;
-        int previousSum=0;
-        for(int i=0;i<sizeOfBlock;i++){
-            for(int j=0;j<sizeOfBlock;j++){
-                if(colorBoard[i][j]==colorBoard[x][y]){
-                    if(sudokuBoard[i][j]!=0){
-                        previousSum+=sudokuBoard[i][j];
-                        blocksOfColorFilled++;
-                    }
-                    blocksOfColor++;
-                }
-            }
-        }
+        int color=cageOf[geometry.box(x, y)];
+        int maxSum=cageTarget[color];
+        int blocksOfColor=cageBoxes[color].length;
+        int blocksOfColorFilled=cageFilled[color];
+        int previousSum=cageSum[color];
         if(previousSum+number > maxSum){
             return false;
         }
@@ -317,26 +549,46 @@ public class KillerBoard extends ClassicBoard {
 
     /** Returns the corresponding sum of the key of a color
      *
+     * @throws IllegalArgumentException if the loaded puzzle has no color with code key
      * @param key
      * @return the sum of color with code key
      */
     public int getColorSum(int key){
-        return colorSums.get(key);
+        if(key<1 || key>=cageTarget.length){
+            throw new IllegalArgumentException("no color with code " + key);
+        }
+        return cageTarget[key];
     }
 
-    /** Hint method needs overriding because of the new rule
+    /** HintMask method needs overriding because of the new rule
      * The method works by taking all the numbers that can be put with the previous rules and then
-     * it checks each of these to see if they break the new rule
+     * keeping only the ones that are in a combination of different numbers that completes the color group:
+     * the empty boxes of the group (with this one) must make the rest of the sum, without the numbers
+     * the other boxes of the group already have. Eg in a group of 2 boxes with sum 3 only 1 and 2 are left
+     * The hint method of Sudoku.Board uses this mask, so it follows the new rule too
      *
      * @param x the number of row
      * @param y the number of column
-     * @return a set of numbers that can be put in position x,y following the rules
+     * @return the mask of the numbers that can be put in position x,y following the rules
      */
     @Override
-    public HashSet<Integer> hint(int x, int y){
-        HashSet<Integer> hintNumbers=super.hint(x,y);
-        hintNumbers.removeIf(number -> !checkColor(x, y, number));
-        return hintNumbers;
+    public long hintMask(int x, int y){
+        long candidates=super.hintMask(x,y);
+        int box=geometry.box(x, y);
+        int color=cageOf[box];
+        int emptyBoxes=cageBoxes[color].length-cageFilled[color];
+        int remainingSum=cageTarget[color]-cageSum[color];
+        if(boxes[box]!=0){ //the number of this box is the one that would change
+            emptyBoxes++;
+            remainingSum+=boxes[box];
+        }
+        long used=0;
+        for(int other:cageBoxes[color]){
+            if(other!=box && boxes[other]!=0){
+                used|=bit(boxes[other]);
+            }
+        }
+        return candidates & combinations.digits(emptyBoxes, remainingSum, geometry.allNumbers & ~used);
     }
 
 }
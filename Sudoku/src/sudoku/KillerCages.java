@@ -0,0 +1,273 @@
+package sudoku;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+/**@author Alexandros Stergiopoulos & Christos Christidis
+ *
+ * The class Sudoku.KillerCages holds the sum rules of a killer puzzle in the form the killer solver needs them
+ * The first cages are the color groups of the board. After them come the cages that the rule of 45 gives:
+ * a row, column or block has all the numbers, so its sum is known (45 in a 9x9), and the same holds for
+ * some rows or columns next to each other. The color groups that are completely inside such a region make
+ * a part of that sum, so the boxes of the region that are in the other groups (innies) must make the rest.
+ * In the same way, the boxes of the groups that stick out of the region (outies) must make the sum of those
+ * groups minus the part inside the region. Innies and outies are checked like any other color group,
+ * but their numbers can be the same unless all their boxes are in one row, column or block
+ * Only small innies and outies are kept, because the big ones say little and cost time in every propagation
+ * The object never changes after it is made, so all the grids of a search share it
+ *
+ */
+final class KillerCages {
+    final BoardGeometry geometry;
+    final KillerCombinations combinations;
+
+    /**
+     * How many of the cages are color groups of the board, the rest come from the rule of 45
+     */
+    final int colorGroups;
+
+    /**
+     * For every cage, its boxes, the sum they must make and if their numbers must be different
+     */
+    final int[][] boxes;
+    final int[] target;
+    final boolean[] distinct;
+
+    /**
+     * For every box, the cages it belongs to
+     */
+    final int[][] cagesOfBox;
+
+    /**
+     * False when the sums can't be right, eg when they don't add up to the sum of the whole board
+     */
+    final boolean consistent;
+
+    private final int maxVirtualBoxes;
+    private final List<int[]> boxesList = new ArrayList<>();
+    private final List<Integer> targetList = new ArrayList<>();
+    private final List<Boolean> distinctList = new ArrayList<>();
+    private final HashSet<String> known = new HashSet<>();
+    private boolean sumsAgree = true;
+
+    /** Makes the cages of a killer board
+     * A board without a loaded puzzle has no cages at all
+     *
+     * @param board the killer board
+     */
+    KillerCages(KillerBoard board) {
+        geometry = board.geometry;
+        combinations = KillerCombinations.of(geometry.size);
+        maxVirtualBoxes = Math.max(1, geometry.size / 2);
+        int[] cageIds = board.getCageIds();
+        int[] sums = board.getCageSums();
+        int size = geometry.size;
+        int lineSum = size * (size + 1) / 2;
+
+        int[] counts = new int[sums.length];
+        for (int id : cageIds) {
+            counts[id]++;
+        }
+        int[][] groups = new int[sums.length][];
+        for (int id = 1; id < sums.length; id++) {
+            groups[id] = new int[counts[id]];
+            counts[id] = 0;
+        }
+        if (sums.length > 1) {
+            for (int box = 0; box < cageIds.length; box++) {
+                groups[cageIds[box]][counts[cageIds[box]]++] = box;
+            }
+            long total = 0;
+            for (int id = 1; id < sums.length; id++) {
+                add(groups[id], sums[id], true);
+                total += sums[id];
+            }
+            sumsAgree = total == (long) size * lineSum;
+        }
+        colorGroups = boxesList.size();
+
+        if (colorGroups > 0) {
+            for (int[] unit : geometry.units) {
+                boolean[] region = new boolean[geometry.numberOfBoxes];
+                for (int box : unit) {
+                    region[box] = true;
+                }
+                addRuleOf45(region, lineSum);
+            }
+            for (int width = 2; width < size; width++) {
+                for (int first = 0; first + width <= size; first++) {
+                    boolean[] rows = new boolean[geometry.numberOfBoxes];
+                    boolean[] columns = new boolean[geometry.numberOfBoxes];
+                    for (int line = first; line < first + width; line++) {
+                        for (int box : geometry.rowBoxes[line]) {
+                            rows[box] = true;
+                        }
+                        for (int box : geometry.columnBoxes[line]) {
+                            columns[box] = true;
+                        }
+                    }
+                    addRuleOf45(rows, width * lineSum);
+                    addRuleOf45(columns, width * lineSum);
+                }
+            }
+        }
+
+        boxes = boxesList.toArray(new int[0][]);
+        target = new int[boxes.length];
+        distinct = new boolean[boxes.length];
+        int[] cagesPerBox = new int[geometry.numberOfBoxes];
+        for (int cage = 0; cage < boxes.length; cage++) {
+            target[cage] = targetList.get(cage);
+            distinct[cage] = distinctList.get(cage);
+            for (int box : boxes[cage]) {
+                cagesPerBox[box]++;
+            }
+        }
+        cagesOfBox = new int[geometry.numberOfBoxes][];
+        for (int box = 0; box < cagesOfBox.length; box++) {
+            cagesOfBox[box] = new int[cagesPerBox[box]];
+            cagesPerBox[box] = 0;
+        }
+        for (int cage = 0; cage < boxes.length; cage++) {
+            for (int box : boxes[cage]) {
+                cagesOfBox[box][cagesPerBox[box]++] = cage;
+            }
+        }
+        consistent = sumsAgree;
+    }
+
+    /** Adds the innies and the outies of a region
+     *
+     * @param region which boxes are in the region
+     * @param sum the sum of all the numbers of the region
+     */
+    private void addRuleOf45(boolean[] region, int sum) {
+        int insideSum = 0;
+        int touchingSum = 0;
+        boolean[] touching = new boolean[colorGroups];
+        for (int cage = 0; cage < colorGroups; cage++) {
+            int in = 0;
+            for (int box : boxesList.get(cage)) {
+                if (region[box]) {
+                    in++;
+                }
+            }
+            if (in == boxesList.get(cage).length) {
+                insideSum += targetList.get(cage);
+            } else if (in > 0) {
+                touchingSum += targetList.get(cage);
+                touching[cage] = true;
+            }
+        }
+        List<Integer> innies = new ArrayList<>();
+        List<Integer> outies = new ArrayList<>();
+        for (int cage = 0; cage < colorGroups; cage++) {
+            if (touching[cage]) {
+                for (int box : boxesList.get(cage)) {
+                    (region[box] ? innies : outies).add(box);
+                }
+            }
+        }
+        int innieSum = sum - insideSum;
+        addVirtual(innies, innieSum);
+        addVirtual(outies, touchingSum - innieSum);
+    }
+
+    /** Adds a cage of the rule of 45, if it is small and not known already
+     * An empty one must have sum 0, otherwise the sums of the puzzle are wrong
+     *
+     * @param cageBoxes the boxes of the cage
+     * @param sum the sum they must make
+     */
+    private void addVirtual(List<Integer> cageBoxes, int sum) {
+        if (cageBoxes.isEmpty()) {
+            if (sum != 0) {
+                sumsAgree = false;
+            }
+            return;
+        }
+        if (cageBoxes.size() > maxVirtualBoxes) {
+            return;
+        }
+        int[] array = new int[cageBoxes.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = cageBoxes.get(i);
+        }
+        Arrays.sort(array);
+        add(array, sum, inOneUnit(array));
+    }
+
+    /** Adds a cage, unless a cage with the same boxes exists
+     *
+     * @param cageBoxes the boxes of the cage
+     * @param sum the sum they must make
+     * @param different if the numbers of the cage must be different
+     */
+    private void add(int[] cageBoxes, int sum, boolean different) {
+        if (known.add(Arrays.toString(cageBoxes))) {
+            boxesList.add(cageBoxes);
+            targetList.add(sum);
+            distinctList.add(different);
+        }
+    }
+
+    /** Tells if some boxes are all in the same row, column or block
+     *
+     * @param cageBoxes the boxes
+     * @return if they are in one row, column or block
+     */
+    private boolean inOneUnit(int[] cageBoxes) {
+        boolean row = true, column = true, block = true;
+        int first = cageBoxes[0];
+        for (int box : cageBoxes) {
+            row &= geometry.rowOf[box] == geometry.rowOf[first];
+            column &= geometry.columnOf[box] == geometry.columnOf[first];
+            block &= geometry.blockOf[box] == geometry.blockOf[first];
+        }
+        return row || column || block;
+    }
+
+    /** Tells if the cages can still be completed after the boxes that are filled, with the sum of
+     * every cage still reachable and no number twice in a cage that needs different numbers
+     *
+     * @param grid the numbers of the board in a flat array
+     * @return if the numbers follow the rules of the sums or not
+     */
+    boolean givenNumbersAreLegal(int[] grid) {
+        for (int cage = 0; cage < boxes.length; cage++) {
+            int sum = 0, filled = 0;
+            long used = 0;
+            for (int box : boxes[cage]) {
+                if (grid[box] != 0) {
+                    long bit = Board.bit(grid[box]);
+                    if (distinct[cage] && (used & bit) != 0) {
+                        return false;
+                    }
+                    used |= bit;
+                    sum += grid[box];
+                    filled++;
+                }
+            }
+            if (!canStillMake(cage, boxes[cage].length - filled, target[cage] - sum)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Tells if the empty boxes of a cage can make the rest of its sum
+     *
+     * @param cage the cage
+     * @param emptyBoxes how many boxes of the cage are empty
+     * @param remainingSum the sum that they must make
+     * @return if it is possible, as far as the number of boxes and the sum can tell
+     */
+    boolean canStillMake(int cage, int emptyBoxes, int remainingSum) {
+        if (distinct[cage]) {
+            return combinations.possible(emptyBoxes, remainingSum);
+        }
+        return remainingSum >= emptyBoxes && remainingSum <= emptyBoxes * geometry.size;
+    }
+}
@@ -0,0 +1,268 @@
+package sudoku;
+
+/**@author Alexandros Stergiopoulos & Christos Christidis
+ *
+ * The class Sudoku.KillerCombinations holds, for a size of board, which numbers can be in a color group
+ * of killer sudoku with a specific number of boxes and a specific sum
+ * The numbers of a color group are all different, so eg 2 boxes with sum 3 can only have 1 and 2,
+ * and 3 boxes with sum 23 can only have 6, 8 and 9
+ * For every number of boxes and every sum, the table keeps the mask of all the numbers that are in at least one
+ * combination, with the same bits as the masks of Sudoku.Board (the bit number-1 for every number)
+ * For boards up to ENUMERATED_SIZE, the table also keeps every combination of every number of boxes and sum, so
+ * that the numbers of a color group where only some numbers may be used are found by going through its combinations,
+ * without making any array. The bigger boards have too many combinations to keep, so they are searched then
+ * The tables never change, so there is one per size that all the boards and solvers share. The table of the
+ * 9x9 boards is made when the class is loaded, the others the first time they are asked
+ *
+ */
+final class KillerCombinations {
+    /**
+     * The biggest size whose combinations are all kept, 2^16 masks in total
+     */
+    static final int ENUMERATED_SIZE = 16;
+
+    /**
+     * One table for every size
+     */
+    private static final KillerCombinations[] TABLES = new KillerCombinations[BoardGeometry.MAX_SIZE + 1];
+
+    static {
+        TABLES[9] = new KillerCombinations(9);
+    }
+
+    final int size;
+
+    /**
+     * The biggest sum a color group can have, when it has all the numbers
+     */
+    final int maxSum;
+
+    /**
+     * digits[boxes][sum] is the mask of the numbers that can be in a color group with that many boxes and that sum
+     */
+    private final long[][] digits;
+
+    /**
+     * combinations[boxes][sum] has the mask of every combination of that many boxes with that sum,
+     * null for the sizes bigger than ENUMERATED_SIZE
+     */
+    private final long[][][] combinations;
+
+    /** Private constructor, the tables are taken from the method of(size)
+     *
+     * @param size the size of the board
+     */
+    private KillerCombinations(int size) {
+        this.size = size;
+        maxSum = size * (size + 1) / 2;
+        if (size <= ENUMERATED_SIZE) {
+            combinations = enumerate(size, maxSum);
+            digits = new long[size + 1][maxSum + 1];
+            for (int boxes = 1; boxes <= size; boxes++) {
+                for (int sum = 1; sum <= maxSum; sum++) {
+                    for (long combination : combinations[boxes][sum]) {
+                        digits[boxes][sum] |= combination;
+                    }
+                }
+            }
+        } else {
+            combinations = null;
+            digits = unions(BoardGeometry.of(size).allNumbers, size, maxSum);
+        }
+    }
+
+    /** Finds every combination of different numbers of a size, by going through all the masks of the numbers
+     *
+     * @param size the size of the board
+     * @param maxSum the sum of all the numbers
+     * @return the masks of the combinations, indexed by number of boxes and sum
+     */
+    private static long[][][] enumerate(int size, int maxSum) {
+        int[][] counts = new int[size + 1][maxSum + 1];
+        for (long mask = 1; mask < 1L << size; mask++) {
+            counts[Long.bitCount(mask)][sumOf(mask)]++;
+        }
+        long[][][] combinations = new long[size + 1][maxSum + 1][];
+        for (int boxes = 0; boxes <= size; boxes++) {
+            for (int sum = 0; sum <= maxSum; sum++) {
+                combinations[boxes][sum] = new long[counts[boxes][sum]];
+                counts[boxes][sum] = 0;
+            }
+        }
+        for (long mask = 1; mask < 1L << size; mask++) {
+            int boxes = Long.bitCount(mask);
+            int sum = sumOf(mask);
+            combinations[boxes][sum][counts[boxes][sum]++] = mask;
+        }
+        return combinations;
+    }
+
+    /** Adds the numbers of a mask
+     *
+     * @param mask the mask of the numbers
+     * @return their sum
+     */
+    private static int sumOf(long mask) {
+        int sum = 0;
+        for (long rest = mask; rest != 0; rest &= rest - 1) {
+            sum += Long.numberOfTrailingZeros(rest) + 1;
+        }
+        return sum;
+    }
+
+    /** Gives the table of a size, making it the first time it is asked
+     *
+     * @throws IllegalArgumentException for a size that is not positive or is greater than BoardGeometry.MAX_SIZE
+     * @param size the size of the board
+     * @return the shared table of boards of that size
+     */
+    static synchronized KillerCombinations of(int size) {
+        BoardGeometry.of(size); //checks the size
+        if (TABLES[size] == null) {
+            TABLES[size] = new KillerCombinations(size);
+        }
+        return TABLES[size];
+    }
+
+    /** Gives the numbers that can be in a color group
+     *
+     * @param boxes the number of (empty) boxes of the color group
+     * @param sum the sum that these boxes must have
+     * @return the mask of the numbers that are in at least one combination, 0 if there is no combination
+     */
+    long digits(int boxes, int sum) {
+        if (boxes < 1 || boxes > size || sum < 1 || sum > maxSum) {
+            return 0;
+        }
+        return digits[boxes][sum];
+    }
+
+    /** Gives the numbers that can be in a color group when only some numbers may be used,
+     * eg because the other boxes of the color group already have the rest
+     * The table is used first, and only if some numbers are not allowed the combinations that have only allowed
+     * numbers are joined. It makes no arrays, because it is called for every hint and by the solvers
+     *
+     * @param boxes the number of (empty) boxes of the color group
+     * @param sum the sum that these boxes must have
+     * @param allowed the mask of the numbers that may be used
+     * @return the mask of the numbers that are in at least one combination of allowed numbers, 0 if there is none
+     */
+    long digits(int boxes, int sum, long allowed) {
+        long all = digits(boxes, sum);
+        if ((all & ~allowed) == 0) {
+            return all;
+        }
+        if ((all & allowed) == 0 || Long.bitCount(allowed) < boxes) {
+            return 0;
+        }
+        if (combinations == null) {
+            return search(allowed & all, boxes, sum);
+        }
+        long union = 0;
+        for (long combination : combinations[boxes][sum]) {
+            if ((combination & ~allowed) == 0) {
+                union |= combination;
+            }
+        }
+        return union;
+    }
+
+    /** Finds the numbers that are in at least one combination of different allowed numbers, for the boards whose
+     * combinations are not kept
+     * The smallest allowed number is either in the combination or not, and both cases are searched, stopping when
+     * the sum can't be made by the numbers that are left
+     *
+     * @param allowed the mask of the numbers that may be used
+     * @param boxes the number of boxes
+     * @param sum the sum of the boxes
+     * @return the mask of the numbers, 0 if there is no combination
+     */
+    private static long search(long allowed, int boxes, int sum) {
+        if (Long.bitCount(allowed) < boxes) {
+            return 0;
+        }
+        int smallest = Long.numberOfTrailingZeros(allowed) + 1;
+        int biggest = Long.SIZE - Long.numberOfLeadingZeros(allowed);
+        if (sum < boxes * smallest || sum > boxes * biggest) {
+            return 0;
+        }
+        long others = allowed & ~Board.bit(smallest);
+        long with;
+        if (boxes == 1) {
+            with = sum == smallest ? Board.bit(smallest) : 0;
+        } else {
+            with = search(others, boxes - 1, sum - smallest);
+            if (with != 0) {
+                with |= Board.bit(smallest);
+            }
+        }
+        return with | search(others, boxes, sum);
+    }
+
+    /** Tells if a color group can still be completed
+     *
+     * @param boxes the number of empty boxes of the color group
+     * @param sum the sum that these boxes must have
+     * @return if there is at least one combination
+     */
+    boolean possible(int boxes, int sum) {
+        return boxes == 0 ? sum == 0 : digits(boxes, sum) != 0;
+    }
+
+    /** Finds, for every number of boxes and every sum up to the given ones, which of the allowed numbers
+     * are in at least one combination of different allowed numbers, for the tables of the bigger boards
+     * For every number d, the sums that the other numbers can make with every number of boxes are found
+     * (as bitsets, like a knapsack), and d is in a combination of k boxes with sum s when the others
+     * can make s-d with k-1 boxes
+     *
+     * @param allowed the mask of the numbers that may be used
+     * @param maxBoxes the biggest number of boxes
+     * @param maxSum the biggest sum
+     * @return the masks of the numbers, indexed by number of boxes and sum
+     */
+    private static long[][] unions(long allowed, int maxBoxes, int maxSum) {
+        long[][] result = new long[maxBoxes + 1][maxSum + 1];
+        int words = maxSum / Long.SIZE + 1;
+        for (long rest = allowed; rest != 0; rest &= rest - 1) {
+            int number = Long.numberOfTrailingZeros(rest) + 1;
+            long[][] reachable = new long[maxBoxes][words]; //sums that k other numbers can make
+            reachable[0][0] = 1;
+            int used = 0;
+            for (long others = allowed & ~Board.bit(number); others != 0; others &= others - 1) {
+                int other = Long.numberOfTrailingZeros(others) + 1;
+                used = Math.min(used + 1, maxBoxes - 1);
+                for (int k = used; k >= 1; k--) {
+                    shiftOr(reachable[k], reachable[k - 1], other);
+                }
+            }
+            for (int k = 1; k <= maxBoxes; k++) {
+                long[] sums = reachable[k - 1];
+                for (int sum = number; sum <= maxSum; sum++) {
+                    int s = sum - number;
+                    if ((sums[s / Long.SIZE] & (1L << s)) != 0) {
+                        result[k][sum] |= Board.bit(number);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /** Adds to a bitset of sums another bitset moved up by shift, the sums that are made by adding shift
+     *
+     * @param target the bitset that changes
+     * @param source the bitset that is moved
+     * @param shift how much it is moved
+     */
+    private static void shiftOr(long[] target, long[] source, int shift) {
+        int wordShift = shift / Long.SIZE;
+        int bitShift = shift % Long.SIZE;
+        for (int i = target.length - 1; i >= wordShift; i--) {
+            long word = source[i - wordShift] << bitShift;
+            if (bitShift != 0 && i - wordShift - 1 >= 0) {
+                word |= source[i - wordShift - 1] >>> (Long.SIZE - bitShift);
+            }
+            target[i] |= word;
+        }
+    }
+}
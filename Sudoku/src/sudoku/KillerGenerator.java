@@ -0,0 +1,372 @@
+package sudoku;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**@author Alexandros Stergiopoulos & Christos Christidis
+ *
+ * The class Sudoku.KillerGenerator makes new killer puzzles that have exactly one solution
+ * It starts from a random solved board of Sudoku.PuzzleGenerator and cuts it into color groups: every group grows
+ * from a random box to random neighbour boxes (up, down, left or right) that don't have a number the group already
+ * has, until it reaches a random size. The sums of the groups come from the numbers of the solved board
+ * Then it looks for two solutions, with the cages and the search of Sudoku.KillerSolver. If it finds two, a box where
+ * they differ leaves its group and becomes a group alone, which gives its number away, and the rest of its group
+ * is split in the parts that are still connected. This is repeated until the solution is unique, which always
+ * happens, because a board where every box is a group alone is already solved
+ * On the big boards the search can take very long, so a search that needs too many guesses gives up and a random
+ * box leaves its group, which makes the next search easier. A puzzle is returned only after a search that didn't
+ * give up, so it is always unique
+ * The generated puzzles don't come from the file, so the boards that load them get the code 0
+ * It can also add new puzzles at the end of a killer file from the command line, made in parallel on all the cores:
+ * java sudoku.KillerGenerator "Killer Sudoku Puzzles.txt" 100
+ *
+ */
+public class KillerGenerator {
+    /**
+     * How many puzzles of a file are generated together before they are written
+     */
+    private static final int BATCH = 1000;
+
+    /**
+     * The most guesses a search for two solutions can make before it gives up
+     */
+    private static final int GUESSES_PER_CHECK = 1000;
+
+    private final Random random;
+    private final PuzzleGenerator solutions;
+    private final int[][] found = new int[2][];
+    private int foundCount;
+
+    /**
+     * The search for two solutions, which keeps them in found
+     */
+    private final GridSearch search = new GridSearch() {
+        @Override
+        boolean solved(CandidateGrid grid) {
+            found[foundCount++] = grid.values.clone();
+            return foundCount == 2;
+        }
+    };
+
+    /** Constructor with a random seed
+     *
+     */
+    public KillerGenerator() {
+        this(new Random());
+    }
+
+    /** Constructor with a given seed, so that the same puzzles are generated every time
+     *
+     * @param seed the seed of the random numbers
+     */
+    public KillerGenerator(long seed) {
+        this(new Random(seed));
+    }
+
+    /** Constructor with a given source of random numbers
+     *
+     * @param random the source of random numbers
+     */
+    KillerGenerator(Random random) {
+        this.random = random;
+        solutions = new PuzzleGenerator(random);
+    }
+
+    /** Makes a killer board with a new puzzle loaded, not from the file
+     *
+     * @throws IllegalArgumentException if the size is not a perfect square
+     * @param size the size of the board
+     * @param wordoku if the board is wordoku or not
+     * @return the board, with code 0 and no numbers
+     */
+    public KillerBoard generateBoard(int size, boolean wordoku) {
+        int[][] solved = solutions.generateSolution(size);
+        KillerBoard board = KillerBoard.withoutFile(size, wordoku);
+        BoardGeometry geometry = board.geometry;
+        int[] solution = new int[geometry.numberOfBoxes];
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(solved[i], 0, solution, i * size, size);
+        }
+        int[] cageIds = new int[geometry.numberOfBoxes];
+        int cages = makeCages(geometry, solution, cageIds);
+        while (true) {
+            int[] codes = codesInReadingOrder(cageIds, cages);
+            board.loadCages(codes, sumsOf(codes, solution, cages));
+            foundCount = 0;
+            search.setGuesses(GUESSES_PER_CHECK);
+            search.search(new KillerGrid(new KillerCages(board), new int[geometry.numberOfBoxes]));
+            if (foundCount == 2) {
+                cages = separate(geometry, cageIds, cages, differentBox(found[0], found[1]));
+            } else if (search.gaveUp()) {
+                cages = separate(geometry, cageIds, cages, boxInBigGroup(cageIds, cages));
+            } else {
+                return board;
+            }
+        }
+    }
+
+    /** Cuts a solved board into connected color groups without a number twice in a group
+     * The biggest groups have as many boxes as the side of a block plus 2 (5 in a 9x9)
+     *
+     * @param geometry the geometry of the board
+     * @param solution the solved board in a flat array
+     * @param cageIds where the group of every box is written, from 1 up to the number of groups
+     * @return the number of groups
+     */
+    private int makeCages(BoardGeometry geometry, int[] solution, int[] cageIds) {
+        int maxCage = geometry.sqrtSize + 2;
+        int[] cageBoxes = new int[maxCage];
+        int cages = 0;
+        for (int start : permutation(cageIds.length)) {
+            if (cageIds[start] != 0) {
+                continue;
+            }
+            int wanted = 2 + random.nextInt(maxCage - 1);
+            cageIds[start] = ++cages;
+            cageBoxes[0] = start;
+            int boxes = 1;
+            long used = Board.bit(solution[start]);
+            int[] options = new int[4 * maxCage];
+            while (boxes < wanted) {
+                int count = 0;
+                for (int k = 0; k < boxes; k++) {
+                    for (int next : neighbours(geometry, cageBoxes[k])) {
+                        if (next >= 0 && cageIds[next] == 0 && (used & Board.bit(solution[next])) == 0) {
+                            options[count++] = next;
+                        }
+                    }
+                }
+                if (count == 0) {
+                    break;
+                }
+                int chosen = options[random.nextInt(count)];
+                cageIds[chosen] = cages;
+                cageBoxes[boxes++] = chosen;
+                used |= Board.bit(solution[chosen]);
+            }
+        }
+        return cages;
+    }
+
+    /** Takes a box out of its group into a new group alone, and splits the rest of the group in its connected parts
+     *
+     * @param geometry the geometry of the board
+     * @param cageIds the group of every box, which is changed
+     * @param cages the number of groups
+     * @param box the box
+     * @return the new number of groups
+     */
+    private static int separate(BoardGeometry geometry, int[] cageIds, int cages, int box) {
+        int old = cageIds[box];
+        cageIds[box] = ++cages;
+        boolean[] visited = new boolean[cageIds.length];
+        int[] stack = new int[cageIds.length];
+        boolean first = true;
+        for (int start = 0; start < cageIds.length; start++) {
+            if (cageIds[start] != old || visited[start]) {
+                continue;
+            }
+            int part = first ? old : ++cages; //the first part keeps the old group
+            first = false;
+            int top = 0;
+            stack[top++] = start;
+            visited[start] = true;
+            while (top > 0) {
+                int current = stack[--top];
+                cageIds[current] = part;
+                for (int next : neighbours(geometry, current)) {
+                    if (next >= 0 && cageIds[next] == old && !visited[next]) {
+                        visited[next] = true;
+                        stack[top++] = next;
+                    }
+                }
+            }
+        }
+        return cages;
+    }
+
+    /** Gives the four neighbours of a box, -1 for the ones outside the board
+     *
+     * @param geometry the geometry of the board
+     * @param box the box
+     * @return the boxes up, down, left and right
+     */
+    private static int[] neighbours(BoardGeometry geometry, int box) {
+        int row = geometry.rowOf[box];
+        int column = geometry.columnOf[box];
+        int last = geometry.size - 1;
+        return new int[]{
+                row > 0 ? box - geometry.size : -1,
+                row < last ? box + geometry.size : -1,
+                column > 0 ? box - 1 : -1,
+                column < last ? box + 1 : -1
+        };
+    }
+
+    /** Renames the groups so that their codes grow in the order the groups first appear, row after row,
+     * like in the file
+     *
+     * @param cageIds the group of every box
+     * @param cages the number of groups
+     * @return the color code of every box
+     */
+    private static int[] codesInReadingOrder(int[] cageIds, int cages) {
+        int[] newCode = new int[cages + 1];
+        int[] codes = new int[cageIds.length];
+        int next = 0;
+        for (int box = 0; box < cageIds.length; box++) {
+            if (newCode[cageIds[box]] == 0) {
+                newCode[cageIds[box]] = ++next;
+            }
+            codes[box] = newCode[cageIds[box]];
+        }
+        return codes;
+    }
+
+    private static int[] sumsOf(int[] codes, int[] solution, int cages) {
+        int[] sums = new int[cages + 1];
+        for (int box = 0; box < codes.length; box++) {
+            sums[codes[box]] += solution[box];
+        }
+        return sums;
+    }
+
+    /** Finds a random box where two solutions have different numbers
+     *
+     * @param first the first solution in a flat array
+     * @param second the second solution in a flat array
+     * @return the box
+     */
+    private int differentBox(int[] first, int[] second) {
+        int[] different = new int[first.length];
+        int count = 0;
+        for (int box = 0; box < first.length; box++) {
+            if (first[box] != second[box]) {
+                different[count++] = box;
+            }
+        }
+        return different[random.nextInt(count)];
+    }
+
+    /** Finds a random box that is not a group alone
+     *
+     * @param cageIds the group of every box
+     * @param cages the number of groups
+     * @return the box
+     */
+    private int boxInBigGroup(int[] cageIds, int cages) {
+        int[] boxesOfGroup = new int[cages + 1];
+        for (int id : cageIds) {
+            boxesOfGroup[id]++;
+        }
+        int[] candidates = new int[cageIds.length];
+        int count = 0;
+        for (int box = 0; box < cageIds.length; box++) {
+            if (boxesOfGroup[cageIds[box]] > 1) {
+                candidates[count++] = box;
+            }
+        }
+        return candidates[random.nextInt(count)];
+    }
+
+    /** Makes a random order of the numbers from 0 to n-1
+     *
+     * @param n how many numbers
+     * @return the numbers in a random order
+     */
+    private int[] permutation(int n) {
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temp = result[i];
+            result[i] = result[j];
+            result[j] = temp;
+        }
+        return result;
+    }
+
+    /** Generates new killer puzzles and adds them at the end of a file, with the codes after the last code of the file
+     * The puzzles are generated in batches, every batch in parallel on all the cores
+     *
+     * @throws IOException if there is a problem with the file
+     * @throws IllegalArgumentException if the size is not a perfect square
+     * @param fileName the name of the file, which is made if it doesn't exist
+     * @param count how many puzzles are added
+     * @param size the size of the puzzles
+     * @return the code of the last puzzle that was added
+     */
+    public static int appendPuzzles(String fileName, int count, int size) throws IOException {
+        BoardGeometry geometry = BoardGeometry.of(size);
+        if (!geometry.isSquare()) {
+            throw new IllegalArgumentException("size of board must be a perfect square");
+        }
+        File file = new File(fileName);
+        String newLine = System.lineSeparator();
+        int code = 0;
+        boolean endsWithNewLine = true;
+        if (file.exists() && file.length() > 0) {
+            newLine = Grader.lineSeparatorOf(fileName);
+            try (BufferedReader read = new BufferedReader(new FileReader(file))) {
+                String line;
+                while ((line = read.readLine()) != null) {
+                    code = Math.max(code, ClassicBoard.codeOf(line));
+                }
+            }
+            try (RandomAccessFile last = new RandomAccessFile(file, "r")) {
+                last.seek(file.length() - 1);
+                endsWithNewLine = last.read() == '\n';
+            }
+        }
+        try (BufferedWriter write = new BufferedWriter(new FileWriter(file, true))) {
+            if (!endsWithNewLine) {
+                write.write(newLine);
+            }
+            String separator = newLine;
+            for (int done = 0; done < count; done += BATCH) {
+                List<String> puzzles = IntStream.range(0, Math.min(BATCH, count - done)).parallel()
+                        .mapToObj(i -> {
+                            StringWriter text = new StringWriter();
+                            try {
+                                new KillerGenerator().generateBoard(size, false).writePuzzle(text, separator);
+                            } catch (IOException exc) {
+                                throw new UncheckedIOException(exc); //a StringWriter doesn't throw it
+                            }
+                            return text.toString();
+                        })
+                        .collect(Collectors.toList());
+                for (String puzzle : puzzles) {
+                    write.write(++code + newLine);
+                    write.write(puzzle);
+                }
+            }
+        }
+        return code;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: KillerGenerator <file> <count> [size]");
+            return;
+        }
+        int count = Integer.parseInt(args[1]);
+        int size = args.length > 2 ? Integer.parseInt(args[2]) : 9;
+        long start = System.nanoTime();
+        int last = appendPuzzles(args[0], count, size);
+        System.out.println("Added " + count + " killer puzzles up to the code " + last
+                + " (" + (System.nanoTime() - start) / 1_000_000 + " ms)");
+    }
+}
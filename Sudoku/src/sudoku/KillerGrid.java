@@ -0,0 +1,189 @@
+package sudoku;
+
+/**@author Alexandros Stergiopoulos & Christos Christidis
+ *
+ * The class Sudoku.KillerGrid is the candidate grid of a killer puzzle
+ * Besides the rules of Sudoku.CandidateGrid, it keeps for every cage (the color groups and the innies and outies
+ * of Sudoku.KillerCages) the sum and the numbers of its filled boxes, and it removes candidates with them:
+ * a cage keeps only the numbers of the combinations that make the rest of its sum, every box keeps only the numbers
+ * that leave a reachable sum for the other boxes, and in a cage with two empty boxes every number needs its
+ * partner in the other box
+ *
+ */
+class KillerGrid extends CandidateGrid {
+    private final KillerCages cages;
+    private final int[] sums;
+    private final int[] filled;
+    private final long[] used;
+
+    /** Makes the grid of a killer board
+     * The given numbers must have been checked with KillerCages.givenNumbersAreLegal
+     *
+     * @param cages the cages of the board
+     * @param grid the numbers of the board in a flat array (0 for empty)
+     */
+    KillerGrid(KillerCages cages, int[] grid) {
+        super(cages.geometry, grid);
+        this.cages = cages;
+        sums = new int[cages.boxes.length];
+        filled = new int[cages.boxes.length];
+        used = new long[cages.boxes.length];
+        for (int cage = 0; cage < cages.boxes.length; cage++) {
+            for (int box : cages.boxes[cage]) {
+                if (values[box] != 0) {
+                    sums[cage] += values[box];
+                    filled[cage]++;
+                    used[cage] |= Board.bit(values[box]);
+                }
+            }
+        }
+    }
+
+    /** Copy constructor, used by copy
+     *
+     * @param other the grid that is copied
+     */
+    private KillerGrid(KillerGrid other) {
+        super(other);
+        cages = other.cages;
+        sums = other.sums.clone();
+        filled = other.filled.clone();
+        used = other.used.clone();
+    }
+
+    @Override
+    KillerGrid copy() {
+        return new KillerGrid(this);
+    }
+
+    /** Adds the number to the cages of the box, removes it from the other boxes of the cages
+     * that need different numbers and checks that the cages can still make their sums
+     *
+     * @param box the box
+     * @param number the number
+     * @return false if a cage can't make its sum anymore
+     */
+    @Override
+    boolean placed(int box, int number) {
+        long bit = Board.bit(number);
+        for (int cage : cages.cagesOfBox[box]) {
+            sums[cage] += number;
+            filled[cage]++;
+            if (cages.distinct[cage]) {
+                if ((used[cage] & bit) != 0) {
+                    return false;
+                }
+                for (int other : cages.boxes[cage]) {
+                    if (other != box && values[other] == 0 && !eliminate(other, bit)) {
+                        return false;
+                    }
+                }
+            }
+            used[cage] |= bit;
+            if (!cages.canStillMake(cage, cages.boxes[cage].length - filled[cage], cages.target[cage] - sums[cage])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Removes the candidates that can't make the sum of a cage, for every cage that has empty boxes
+     *
+     * @param counts how many times every technique was used
+     * @return how many boxes lost candidates, or -1 if the grid has no solution
+     */
+    @Override
+    int propagateExtraRules(long[] counts) {
+        int changes = 0;
+        for (int cage = 0; cage < cages.boxes.length; cage++) {
+            int[] cageBoxes = cages.boxes[cage];
+            int emptyBoxes = cageBoxes.length - filled[cage];
+            if (emptyBoxes == 0) {
+                continue;
+            }
+            int remainingSum = cages.target[cage] - sums[cage];
+            long union = 0;
+            int lowest = 0, highest = 0;
+            for (int box : cageBoxes) {
+                if (values[box] == 0) {
+                    union |= candidates[box];
+                    lowest += Long.numberOfTrailingZeros(candidates[box]) + 1;
+                    highest += Long.SIZE - Long.numberOfLeadingZeros(candidates[box]);
+                }
+            }
+            long combination = geometry.allNumbers;
+            if (cages.distinct[cage]) {
+                combination = cages.combinations.digits(emptyBoxes, remainingSum, union & ~used[cage]);
+                if (combination == 0) {
+                    return -1;
+                }
+            }
+            Technique technique = cage < cages.colorGroups ? Technique.CAGE_COMBINATIONS : Technique.INNIES_OUTIES;
+            for (int box : cageBoxes) {
+                if (values[box] != 0) {
+                    continue;
+                }
+                long before = candidates[box];
+                int boxLowest = Long.numberOfTrailingZeros(before) + 1;
+                int boxHighest = Long.SIZE - Long.numberOfLeadingZeros(before);
+                //the other empty boxes make between (lowest - boxLowest) and (highest - boxHighest)
+                long keep = before & combination
+                        & numbersBetween(remainingSum - (highest - boxHighest), remainingSum - (lowest - boxLowest));
+                if (emptyBoxes == 2) {
+                    keep &= partners(cage, box, remainingSum);
+                }
+                if (keep != before) {
+                    counts[technique.ordinal()]++;
+                    if (!eliminate(box, before & ~keep)) {
+                        return -1;
+                    }
+                    changes++;
+                }
+            }
+        }
+        return changes;
+    }
+
+    /** In a cage with two empty boxes, finds the numbers of a box whose partner (the rest of the sum) is
+     * a candidate of the other box
+     *
+     * @param cage the cage
+     * @param box one of its two empty boxes
+     * @param remainingSum the sum the two boxes must make
+     * @return the mask of the numbers that have a partner
+     */
+    private long partners(int cage, int box, int remainingSum) {
+        long other = 0;
+        for (int otherBox : cages.boxes[cage]) {
+            if (otherBox != box && values[otherBox] == 0) {
+                other = candidates[otherBox];
+            }
+        }
+        long result = 0;
+        for (long rest = candidates[box]; rest != 0; rest &= rest - 1) {
+            int number = Long.numberOfTrailingZeros(rest) + 1;
+            int partner = remainingSum - number;
+            if (partner >= 1 && partner <= geometry.size && (other & Board.bit(partner)) != 0
+                    && !(cages.distinct[cage] && partner == number)) {
+                result |= Board.bit(number);
+            }
+        }
+        return result;
+    }
+
+    /** Gives the mask of the numbers from low to high
+     *
+     * @param low the smallest number
+     * @param high the biggest number
+     * @return the mask, 0 if there is no number between them
+     */
+    private long numbersBetween(int low, int high) {
+        low = Math.max(low, 1);
+        high = Math.min(high, geometry.size);
+        if (low > high) {
+            return 0;
+        }
+        long upToHigh = high == Long.SIZE ? -1L : (1L << high) - 1;
+        return upToHigh & ~((1L << (low - 1)) - 1);
+    }
+}
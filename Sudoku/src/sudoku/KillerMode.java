@@ -47,7 +47,9 @@ public class KillerMode extends JFrame {
             public void actionPerformed(ActionEvent e) {
                 if(board.finished()){
                     JOptionPane.showMessageDialog(null, bundle.getString("checkMessageFinished"));
-                    player.addKillerSudoku(board.getCode());
+                    if (board.getCode() > 0) { //a generated puzzle has no code to remember
+                        player.addKillerSudoku(board.getCode());
+                    }
                     player.changePlayerFile();
                     dispose();
                 } else {
@@ -62,11 +64,6 @@ public class KillerMode extends JFrame {
          */
         JTextField[][] boxes = new JTextField[board.getSize()][board.getSize()];
 
-        /** Initializing a new color board from getColorBoard method of object board
-         *
-         */
-        int[][] colors = board.getColorBoard();
-
         for(int i=0; i<board.getSize();i++){
             for(int j=0; j<board.getSize(); j++){
 
@@ -79,12 +76,12 @@ public class KillerMode extends JFrame {
                 boxes[i][j] = new JTextField(1);
                 boxes[i][j].setSize(50, 50);
 
-                /** Setting background color of each box based on the value of its colors[i][j] counterpart cell divided
+                /** Setting background color of each box based on the value of its color code (getCageId) divided
                  * by the total amount of colors in the puzzle. This ensures that all cells with the same sum will get
                  * the same color and no conflicts are created (neighboring cells having the same color)
                  */
 
-                boxes[i][j].setBackground(board.numberToColor(colors[i][j] % board.howManyColors()));
+                boxes[i][j].setBackground(board.numberToColor(board.getCageId(i, j) % board.howManyColors()));
 
                 /** Declaring two new int variables with the value of i,j in each cycle of the loop that will be used
                  * later on in each listener.
@@ -122,7 +119,7 @@ public class KillerMode extends JFrame {
 
                             HashSet<Integer> hints = board.hint(finalI, finalJ);
                             StringBuilder showHint = new StringBuilder(bundle.getString("killerSumMessage"));
-                            showHint.append(" ").append(board.getColorSum(colors[finalI][finalJ])).append("\n");
+                            showHint.append(" ").append(board.getColorSum(board.getCageId(finalI, finalJ))).append("\n");
                             if(hints.isEmpty()){
                                 showHint.append(bundle.getString("hintMessageEmpty"));
                                 JOptionPane.showMessageDialog(null, showHint,"",JOptionPane.WARNING_MESSAGE);
@@ -0,0 +1,44 @@
+package sudoku;
+
+import java.util.List;
+
+/**@author Alexandros Stergiopoulos & Christos Christidis
+ *
+ * The class Sudoku.KillerSolver solves a killer board with constraint propagation and search, like
+ * Sudoku.ConstraintSolver, but on a Sudoku.KillerGrid that also knows the sums of the color groups
+ * Besides the classic techniques it uses the combinations of the color groups and the rule of 45
+ * (innies and outies of the rows, columns and blocks, see Sudoku.KillerCages)
+ * The numbers of a color group must be different, as in every killer sudoku
+ * The statistics tell how many guesses (nodes) were made, how many times every technique was used and how long it took
+ *
+ */
+public class KillerSolver extends AbstractSolver {
+    /** Makes the cages and the candidate grid of the board and searches it
+     *
+     * @throws IllegalArgumentException if the board is not a killer board
+     * @param board the board that is solved
+     * @param grid the numbers of the board in a flat array
+     * @param limit the most solutions that must be found
+     * @param solutions the list where the solutions are added
+     */
+    @Override
+    void search(Board board, int[] grid, int limit, List<int[][]> solutions) {
+        if (!(board instanceof KillerBoard)) {
+            throw new IllegalArgumentException("killer solver can only solve killer boards");
+        }
+        KillerCages cages = new KillerCages((KillerBoard) board);
+        if (!cages.consistent || !cages.givenNumbersAreLegal(grid)) {
+            return;
+        }
+        GridSearch search = new GridSearch() {
+            @Override
+            boolean solved(CandidateGrid solved) {
+                solutions.add(toSquareArray(solved.values, solved.geometry.size));
+                return solutions.size() >= limit;
+            }
+        };
+        search.search(new KillerGrid(cages, grid));
+        statistics.addNodes(search.getNodes());
+        statistics.addTechniques(search.techniqueCounts);
+    }
+}
@@ -0,0 +1,160 @@
+package sudoku;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**@author Alexandros Stergiopoulos & Christos Christidis
+ *
+ * The class Sudoku.ParallelSolver does the same search as Sudoku.ConstraintSolver (Sudoku.GridSearch, propagation
+ * and guessing on the box with the fewest candidates) but splits the search tree in tasks of a ForkJoinPool
+ * Every guess of a box can become a task of its own. A task only splits while the pool is running out of
+ * queued work, otherwise it goes on alone, so there are enough tasks for all the threads to steal
+ * but not so many that making them costs more than the search itself
+ * When enough solutions have been found, a flag stops all the other tasks, and the tasks that are still
+ * in the queues end as soon as they start. Every search has its own flag and list of solutions, so a solver
+ * can be used for many searches
+ * It is meant for the big boards (16x16, 25x25, 36x36), for a 9x9 the sequential solvers are faster
+ *
+ */
+public class ParallelSolver extends AbstractSolver {
+    /**
+     * A task doesn't split when its grid has fewer empty boxes than this, because the rest of its search is small
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 20;
+
+    /**
+     * A task splits only when the queue of its thread has fewer tasks than this
+     */
+    private static final int SURPLUS_TASKS = 2;
+
+    private final ForkJoinPool pool;
+
+    /** Constructor that uses the common pool of the JVM
+     *
+     */
+    public ParallelSolver() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /** Constructor that uses a pool given by the user
+     *
+     * @param pool the pool where the tasks will run
+     */
+    public ParallelSolver(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /** Starts the first task in the pool and waits for the search to end
+     * Every task waits for the tasks it forked, so when invoke returns no task of this search is running
+     *
+     * @param board the board that is solved
+     * @param grid the numbers of the board in a flat array
+     * @param limit the most solutions that must be found
+     * @param solutions the list where the solutions are added
+     */
+    @Override
+    void search(Board board, int[] grid, int limit, List<int[][]> solutions) {
+        SearchState state = new SearchState(limit, solutions);
+        pool.invoke(new SearchTask(state, new CandidateGrid(board.geometry, grid)));
+        statistics.addNodes(state.nodes.sum());
+    }
+
+    /** Adds the technique counts of a task to the statistics
+     *
+     * @param counts the counts of the task
+     */
+    private void addTechniques(long[] counts) {
+        synchronized (statistics) {
+            statistics.addTechniques(counts);
+        }
+    }
+
+    /**
+     * What the tasks of one search share, so that the tasks of a search never touch the state of another search
+     */
+    private static final class SearchState {
+        private final int limit;
+        private final List<int[][]> solutions;
+        private final AtomicBoolean stop = new AtomicBoolean();
+        private final LongAdder nodes = new LongAdder();
+
+        SearchState(int limit, List<int[][]> solutions) {
+            this.limit = limit;
+            this.solutions = solutions;
+        }
+
+        /** Adds a solution, and sets the flag that stops the other tasks when there are enough
+         *
+         * @param grid the solved grid
+         */
+        void foundSolution(CandidateGrid grid) {
+            synchronized (solutions) {
+                if (solutions.size() < limit) {
+                    solutions.add(toSquareArray(grid.values, grid.geometry.size));
+                }
+                if (solutions.size() >= limit) {
+                    stop.set(true);
+                }
+            }
+        }
+    }
+
+    /** The task that searches the subtree under a grid
+     *
+     */
+    private class SearchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final SearchState state;
+        private final CandidateGrid grid;
+        private final List<SearchTask> forked = new ArrayList<>();
+
+        /**
+         * The search of the task, where a guess can become a new task
+         */
+        private final GridSearch search = new GridSearch() {
+            @Override
+            boolean guess(CandidateGrid guess, boolean last) {
+                if (!last && guess.emptyBoxes >= SEQUENTIAL_THRESHOLD
+                        && ForkJoinTask.getSurplusQueuedTaskCount() < SURPLUS_TASKS) {
+                    SearchTask task = new SearchTask(state, guess);
+                    forked.add(task);
+                    task.fork();
+                    return false;
+                }
+                return search(guess);
+            }
+
+            @Override
+            boolean stopped() {
+                return state.stop.get();
+            }
+
+            @Override
+            boolean solved(CandidateGrid solved) {
+                state.foundSolution(solved);
+                return state.stop.get();
+            }
+        };
+
+        SearchTask(SearchState state, CandidateGrid grid) {
+            this.state = state;
+            this.grid = grid;
+        }
+
+        @Override
+        protected void compute() {
+            search.search(grid);
+            state.nodes.add(search.getNodes());
+            addTechniques(search.techniqueCounts);
+            for (SearchTask task : forked) {
+                task.join(); //after a stop, the tasks that haven't started end at once
+            }
+        }
+    }
+}
@@ -1,7 +1,8 @@
 package sudoku;
 
 import java.io.*;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.List;
 
 /**@author Alexandros Stergiopoulos & Christos Christidis
  *
@@ -14,14 +15,25 @@ import java.util.HashSet;
 public class Player {
     /** The class consists of a name, the wins and loses they have on mode Sudoku.Duidoku
      * and the sudoku and killer sudoku games they've won
-     * The last two are stored in HashSets and they contain the codes of the games they've won
+     * The last two are stored in Sudoku.WonGames, a set of bits that contains the codes of the games they've won
      *
      */
     private String name;
     private int duidokuWins;
     private int duidokuLoses;
-    private HashSet<Integer> classicSudokuGamesWon;
-    private HashSet<Integer> killerSudokuGamesWon;
+    private WonGames classicSudokuGamesWon;
+    private WonGames killerSudokuGamesWon;
+
+    /**
+     * The puzzles of the last puzzle file of every mode that the player hasn't won, so that a new game is found at once
+     */
+    private UnplayedPuzzles classicUnplayed;
+    private UnplayedPuzzles killerUnplayed;
+
+    /**
+     * The changes of the stats that haven't been saved yet, the way Sudoku.PlayerLog stores them
+     */
+    private final List<String> unsavedChanges = new ArrayList<>();
 
     /** Constructor
      *
@@ -31,8 +43,8 @@ public class Player {
         name = aName;
         duidokuWins = 0;
         duidokuLoses = 0;
-        classicSudokuGamesWon = new HashSet<>();
-        killerSudokuGamesWon = new HashSet<>();
+        classicSudokuGamesWon = new WonGames();
+        killerSudokuGamesWon = new WonGames();
     }
 
     /** Default Constructor that the GUI uses with name unknown
@@ -64,18 +76,30 @@ public class Player {
 
     /** Method that adds the code of a ClassicSudoku
      *
+     * @throws IllegalArgumentException if the code is not positive
      * @param code the code of a ClassicSudoku
      */
     public void addClassicSudoku(int code){
-        classicSudokuGamesWon.add(code);
+        if (classicSudokuGamesWon.add(code)) {
+            unsavedChanges.add(PlayerLog.change(PlayerLog.CLASSIC, code));
+            if (classicUnplayed != null) {
+                classicUnplayed.won(code);
+            }
+        }
     }
 
     /** Method that adds the code of a Sudoku.KillerSudoku
      *
+     * @throws IllegalArgumentException if the code is not positive
      * @param code the code of a Sudoku.KillerSudoku
      */
     public void addKillerSudoku(int code){
-        killerSudokuGamesWon.add(code);
+        if (killerSudokuGamesWon.add(code)) {
+            unsavedChanges.add(PlayerLog.change(PlayerLog.KILLER, code));
+            if (killerUnplayed != null) {
+                killerUnplayed.won(code);
+            }
+        }
     }
 
     /** Method that adds one win on the duidokuWins
@@ -83,6 +107,7 @@ public class Player {
      */
     public void duidokuWon() {
         duidokuWins++;
+        unsavedChanges.add(PlayerLog.added(PlayerLog.DUIDOKU_WINS, 1));
     }
 
     /** Method that adds one lose on the duidokuLoses
@@ -90,19 +115,46 @@ public class Player {
      */
     public void duidokuLost(){
         duidokuLoses++;
+        unsavedChanges.add(PlayerLog.added(PlayerLog.DUIDOKU_LOSES, 1));
     }
 
     /** Used on classic board classes to load a classic game that the player hasn't played yet
+     * The codes can only be read, they are added with addClassicSudoku
      *
-     * @return the HashSet of ClassicSudokuGamesWon
+     * @return the codes of ClassicSudokuGamesWon
      */
-    public HashSet<Integer> getClassicSudokuGamesWon(){return classicSudokuGamesWon;}
+    public WonGames getClassicSudokuGamesWon(){return classicSudokuGamesWon;}
 
     /** Used on killer board classes to load a killer game that the player hasn't played yet
+     * The codes can only be read, they are added with addKillerSudoku
+     *
+     * @return the codes of KillerSudokuGamesWon
+     */
+    public WonGames getKillerSudokuGamesWon(){return killerSudokuGamesWon;}
+
+    /** Used on classic board classes to find at once a classic game that the player hasn't won
+     *
+     * @param codes the codes of the puzzles of the file, in ascending order
+     * @return the codes of the file that the player hasn't won
+     */
+    UnplayedPuzzles getClassicUnplayed(int[] codes) {
+        if (classicUnplayed == null || !classicUnplayed.isFor(codes, classicSudokuGamesWon)) {
+            classicUnplayed = new UnplayedPuzzles(codes, classicSudokuGamesWon);
+        }
+        return classicUnplayed;
+    }
+
+    /** Used on killer board classes to find at once a killer game that the player hasn't won
      *
-     * @return the HashSet of KillerSudokuGamesWon
+     * @param codes the codes of the puzzles of the file, in ascending order
+     * @return the codes of the file that the player hasn't won
      */
-    public HashSet<Integer> getKillerSudokuGamesWon(){return killerSudokuGamesWon;}
+    UnplayedPuzzles getKillerUnplayed(int[] codes) {
+        if (killerUnplayed == null || !killerUnplayed.isFor(codes, killerSudokuGamesWon)) {
+            killerUnplayed = new UnplayedPuzzles(codes, killerSudokuGamesWon);
+        }
+        return killerUnplayed;
+    }
 
     /** toString method (not override, so System.out.println(player) won't work
      * If the language is greek, then the string is written in greek
@@ -124,20 +176,21 @@ public class Player {
 
     /** When a player wants to login with a different name, the method either loads the stats of the player
      * or makes a "new" player like a constructor
+     * The stats are found by the name in Sudoku.PlayerRepository, that reads the file only once
      * General method for any filename
      *
      * @param name the new name that the user will use
      * @param fileName name of the file
      */
     public void loginPlayer(String name,String fileName) {
-        if(playerFoundOnFile(name,fileName)){
-            loadStatsFromFile(name,fileName);
-        } else {
-            this.name=name;
-            duidokuWins=0;
-            duidokuLoses=0;
-            classicSudokuGamesWon = new HashSet<>();
-            killerSudokuGamesWon = new HashSet<>();
+        reset(name);
+        try {
+            PlayerRepository.of(fileName).load(this);
+        } catch (IOException exp){
+            System.err.println("loadStats exception");
+        } catch (IllegalArgumentException exc){ //also a NumberFormatException
+            System.err.println("file storing is wrong");
+            reset("unknown");
         }
     }
 
@@ -146,144 +199,129 @@ public class Player {
     */
     void loginPlayer(String name) { loginPlayer(name,"Players.txt");}
 
-    /** Searches on the file to check whether the player has played again (the player's stats
-     * are on the file)
+    /** Makes the player a new player with no stats, like a constructor
      *
-     * @throws IOException if there is any problem with the file
-     * @param newName the name that is going to be searched on the file
-     * @param fileName name of file that players are stored
-     * @return true if the name exists on the file or false if it doesn't
+     * @param newName the name of the player
      */
-    private boolean playerFoundOnFile(String newName, String fileName){
-        try(BufferedReader read= new BufferedReader( new FileReader(fileName))) {
-            String line;
-            while ((line = read.readLine()) != null) {
-                if (line.startsWith(newName + ",")) {
-                    return true;
-                }
-            }
-        } catch (IOException exp){
-            System.err.println("problem with file");
-        }
-        return false;
+    private void reset(String newName) {
+        name=newName;
+        duidokuWins=0;
+        duidokuLoses=0;
+        classicSudokuGamesWon = new WonGames();
+        killerSudokuGamesWon = new WonGames();
+        unsavedChanges.clear();
     }
 
-    /** Called only when the newName has been found on the file
-     * It then finds again the line of the player's stats and stores them on the fields of the object
-     * the players are all stored in a certain way to be loaded correctly on the file "Players.txt"
+    /** Reads the stats of the player from their line on the file "Players.txt"
+     * The players are all stored in a certain way to be loaded correctly
      * The way that a player is stored is like this:
      * name,duidokuWins,duidokuLoses,the codes of the classicSudoku games that are won separated by a
      * space,the codes of the killerSudoku games that are won separated by a space
      * eg a player named Alex with 3 wins, 5 loses and won the classics 1,5,7,8 and the
      * killers 2,3,6,7,8 is:
      * Alex,3,5,1 5 7 8 ,2 3 6 7 8
+     * A player that hasn't won any classic or killer games has 0 in their place
      *
      * The reason behind this particular way they are stored is to separate them
      * easily with String.split method
-     * @throws IOException if there is a problem with the file
-     * @throws NumberFormatException  if the stats were not stored in the particular way described above
-     * @param newName the name that the user will now use
-     * @param fileName the name of the file
+     * @throws IllegalArgumentException (or NumberFormatException) if the stats were not stored in the particular
+     * way described above
+     * @param line the line of the player
      */
-    private void loadStatsFromFile(String newName,String fileName) {
-        try(BufferedReader read= new BufferedReader( new FileReader(fileName))){
-            String line;
-            while((line=read.readLine()) != null){
-                if(line.startsWith(newName+",")) {
-                    String[] parts= line.split(",");
-                    name=parts[0];
-                    duidokuWins=Integer.parseInt(parts[1]);
-                    duidokuLoses=Integer.parseInt(parts[2]);
-                    String[] classicWins = parts[3].split(" ");
-                    if(!classicWins[0].equals("0")) {
-                        for (String classicWin : classicWins) {
-                            addClassicSudoku(Integer.parseInt(classicWin));
-                        }
-                    }
-                    String[] killerWins = parts[4].split(" ");
-                    if(!killerWins[0].equals("0")) {
-                        for (String killerCode : killerWins) {
-                            addKillerSudoku(Integer.parseInt(killerCode));
-                        }
-                    }
-                }
+    void readLine(String line) {
+        String[] parts= line.split(",");
+        if (parts.length != 5) {
+            throw new IllegalArgumentException("a player has 5 stats");
+        }
+        name=parts[0];
+        duidokuWins=Integer.parseInt(parts[1]);
+        duidokuLoses=Integer.parseInt(parts[2]);
+        String[] classicWins = parts[3].split(" ");
+        if(!classicWins[0].equals("0")) {
+            for (String classicWin : classicWins) {
+                classicSudokuGamesWon.add(Integer.parseInt(classicWin));
+            }
+        }
+        String[] killerWins = parts[4].split(" ");
+        if(!killerWins[0].equals("0")) {
+            for (String killerCode : killerWins) {
+                killerSudokuGamesWon.add(Integer.parseInt(killerCode));
             }
-        } catch (IOException exp){
-            System.err.println("loadStats exception");
-        } catch (NumberFormatException exc){
-            System.err.println("file storing is wrong");
-            name="unknown";
-            duidokuWins=0;
-            duidokuLoses=0;
-            classicSudokuGamesWon = new HashSet<>();
-            killerSudokuGamesWon = new HashSet<>();
         }
     }
 
-    /** Changes the file with the new stats of the player
-     * To do that, it stores all the other names on a temp txt file and if it finds the player, it changes
-     * the line with the updated stats. If the player wasn't on the file before, they will be added
-     * to the bottom. After that, is copies the entire temp file line by line and pastes it to the original one.
-     * In the end, it deletes the temp file
+    /** Brings the stats on the way readLine reads them
      *
-     * This method is always called after a change of a field, even in the anonymous play
-     * So if the player has played anonymously (as discussed above they will have the name unknown) the
-     * change will not happen
-     *
-     * General method for any file
-     * @param fileName name of file
+     * @return the line of the player
      */
-    public void changePlayerFile(String fileName) {
-        if(name.equals("unknown")){
-            return; // won't need an update on anonymous plays
-        }
-        boolean playerExisted=playerFoundOnFile(this.name,fileName);
-        StringBuilder playerLine = new StringBuilder(); //bringing the stats on the way they are stored on the file
+    String toLine() {
+        StringBuilder playerLine = new StringBuilder();
         playerLine.append(name).append(",").append(duidokuWins).append(",").append(duidokuLoses).append(",");
         if (classicSudokuGamesWon.isEmpty()) {
             playerLine.append("0,");
         } else {
-            for (int classicCode : classicSudokuGamesWon) {
-                playerLine.append(classicCode).append(" ");
-            }
+            classicSudokuGamesWon.stream().forEach(classicCode -> playerLine.append(classicCode).append(" "));
             playerLine.append(",");
         }
         if (killerSudokuGamesWon.isEmpty()) {
             playerLine.append("0");
         } else {
-            for (int killerCode : killerSudokuGamesWon) {
-                playerLine.append(killerCode).append(" ");
-            }
+            killerSudokuGamesWon.stream().forEach(killerCode -> playerLine.append(killerCode).append(" "));
         }
-        try (BufferedReader read = new BufferedReader(new FileReader(fileName)) // overwriting the others
-               ; PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter("tempPlayers.txt")))) { //in temp file
-            String line;
-                while ((line = read.readLine()) != null) {
-                    if (line.startsWith(name + ",")) { //in line of particular player we put the new stats
-                        out.println(playerLine.toString());
-                    } else {
-                        out.println(line);
-                    }
-                }
-                if(!playerExisted){
-                    out.println(playerLine.toString());
-                }
-            } catch (IOException exp) {
-            // System.out.println("problem");
+        return playerLine.toString();
+    }
+
+    /** Changes a stat the way a line of the log of Sudoku.PlayerLog says, without making it an unsaved change
+     * A change of the wins or loses either gives their new value or, if it was made by PlayerLog.added, adds to them
+     *
+     * @throws IllegalArgumentException (or NumberFormatException) if the change was not stored the right way
+     * @param change the kind of the change and its value, separated by a comma
+     */
+    void applyChange(String change) {
+        if (change.length() < 3 || change.charAt(1) != ',') {
+            throw new IllegalArgumentException("a change is a kind and a value");
         }
-        try (BufferedReader read = new BufferedReader(new FileReader("tempPlayers.txt"))
-             ; PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(fileName)))) {
-            String line;
-            while ((line = read.readLine()) != null) {
-                if (!line.equals("\n")) {  //a blank line always shows up so we don't overwrite it
-                    out.println(line);
-                }
-            }
+        int value = Integer.parseInt(change.substring(2));
+        switch (change.charAt(0)) {
+            case PlayerLog.DUIDOKU_WINS:
+                duidokuWins = PlayerLog.isAdded(change) ? duidokuWins + value : value;
+                break;
+            case PlayerLog.DUIDOKU_LOSES:
+                duidokuLoses = PlayerLog.isAdded(change) ? duidokuLoses + value : value;
+                break;
+            case PlayerLog.CLASSIC:
+                classicSudokuGamesWon.add(value);
+                break;
+            case PlayerLog.KILLER:
+                killerSudokuGamesWon.add(value);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown change " + change.charAt(0));
+        }
+    }
+
+    /** Saves the changes of the stats of the player since they were last saved
+     * They are kept in memory by Sudoku.PlayerRepository, that adds them at the end of the log of the file
+     * (see Sudoku.PlayerLog) in the background, so the game never waits for the file
+     *
+     * This method is always called after a change of a field, even in the anonymous play
+     * So if the player has played anonymously (as discussed above they will have the name unknown) the
+     * change will not happen
+     *
+     * General method for any file
+     * @param fileName name of file
+     */
+    public void changePlayerFile(String fileName) {
+        if(name.equals("unknown")){
+            unsavedChanges.clear();
+            return; // won't need an update on anonymous plays
+        }
+        try {
+            PlayerRepository.of(fileName).save(name, unsavedChanges);
+            unsavedChanges.clear();
         } catch (IOException exp) {
-            // System.out.println("problem");
+            System.err.println("problem saving the stats of " + name);
         }
-        File file = new File("tempPlayers.txt");  //delete of tempFile
-        file.delete();
     }
 
     /**Default method for this version with fileName Players.txt
@@ -0,0 +1,553 @@
+package sudoku;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**@author Alexandros Stergiopoulos & Christos Christidis
+ *
+ * The class Sudoku.PlayerLog stores the stats of the players, so that saving a game only adds a few lines
+ * at the end of a file instead of writing the stats of every player again
+ * The file of the players (eg "Players.txt") keeps the stats the way Sudoku.Player describes and is called the snapshot.
+ * Every change after it goes at the end of the log, a file with ".log" after the name of the snapshot.
+ * A change is a line name,kind,value where kind is one of:
+ * W the duidoku wins of the player are now value
+ * L the duidoku loses of the player are now value
+ * C the player has won the classic sudoku with code value
+ * K the player has won the killer sudoku with code value
+ * Every change says what a stat is and not how much it changed, so reading a change twice gives the same stats
+ * In memory a win or a lose is kept as how much it adds (see added), because a program doesn't know the wins that
+ * the other programs have written since it read the files. append locks the files, reads those changes and only
+ * then turns it into the new value, so two programs that change the same player never lose a win of each other
+ * All the files are read and written as UTF-8, so a name is the same on every computer
+ *
+ * When the log gets bigger than COMPACT_AFTER bytes, a background thread compacts it: the log is renamed to
+ * ".compacting" (new changes go to a new log), its changes are written in a new snapshot that is written in a
+ * temporary file and renamed over the old one, and then ".compacting" is deleted. A crash at any point leaves a
+ * snapshot and changes that give the right stats, because a change that is read again after it is in the snapshot
+ * changes nothing
+ *
+ * Many programs can use the same files (eg on a shared computer). Every read and write of the files locks the file
+ * with ".lock" after the name of the snapshot with FileChannel.lock, shared for reading and exclusive for writing,
+ * and the temporary snapshot has a name that no other program uses. In the same program the threads are
+ * synchronized on the object, because FileChannel.lock only works between programs
+ * A program keeps the line of every player as it was when it last read or wrote the files, and remembers how much
+ * of the log it has read, so refresh and append only read the changes that the other programs have added since
+ *
+ */
+final class PlayerLog {
+    /**
+     * The end of the name of the log, after the name of the snapshot
+     */
+    static final String EXTENSION = ".log";
+
+    /**
+     * The end of the name of a log that is being compacted
+     */
+    static final String COMPACTING = ".compacting";
+
+    /**
+     * The end of the name of the file that is locked, after the name of the snapshot
+     */
+    static final String LOCK = ".lock";
+
+    /**
+     * The size of the log in bytes after which it is compacted
+     */
+    static final long COMPACT_AFTER = 64 * 1024;
+
+    static final char DUIDOKU_WINS = 'W';
+    static final char DUIDOKU_LOSES = 'L';
+    static final char CLASSIC = 'C';
+    static final char KILLER = 'K';
+
+    private static final HashMap<String, PlayerLog> opened = new HashMap<>();
+
+    private static final ExecutorService compactor = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "player-log-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final File snapshot;
+    private final File log;
+    private final File compacting;
+    private final File lockFile;
+    private boolean compactionQueued;
+
+    /**
+     * What the files were like when they were last read by readAll, and how many bytes of the log have been read
+     */
+    private Object snapshotRead;
+    private Object logRead;
+    private boolean compactingRead;
+    private long logPosition;
+
+    /**
+     * The line of every player as the files had it when they were last read or written, null before the first read
+     */
+    private HashMap<String, String> players;
+
+    private PlayerLog(File snapshot) {
+        this.snapshot = snapshot;
+        log = new File(snapshot.getPath() + EXTENSION);
+        compacting = new File(snapshot.getPath() + COMPACTING);
+        lockFile = new File(snapshot.getPath() + LOCK);
+    }
+
+    /** Gives the log of a file of players, the same object for the same file, so that the threads that use it
+     * are synchronized on it
+     *
+     * @throws IOException if the path of the file can't be found
+     * @param fileName the name of the snapshot
+     * @return the log
+     */
+    static synchronized PlayerLog of(String fileName) throws IOException {
+        File file = new File(fileName);
+        return opened.computeIfAbsent(file.getCanonicalPath(), path -> new PlayerLog(file));
+    }
+
+    /** Makes the line of a change, without the name of the player
+     *
+     * @param kind what has changed: DUIDOKU_WINS, DUIDOKU_LOSES, CLASSIC or KILLER
+     * @param value the new number of wins or loses, or the code of the puzzle that is won
+     * @return the line of the change after the comma that follows the name
+     */
+    static String change(char kind, int value) {
+        return kind + "," + value;
+    }
+
+    /** Makes the line of a change that adds to the duidoku wins or loses, without the name of the player
+     * It is only kept in memory: append writes the new value instead
+     *
+     * @param kind DUIDOKU_WINS or DUIDOKU_LOSES
+     * @param count how many wins or loses are added
+     * @return the line of the change after the comma that follows the name
+     */
+    static String added(char kind, int count) {
+        return kind + ",+" + count;
+    }
+
+    /** Tells if a change adds to the duidoku wins or loses instead of giving their new value
+     *
+     * @param change the line of the change after the comma that follows the name
+     * @return true for a change made by added
+     */
+    static boolean isAdded(String change) {
+        return (change.charAt(0) == DUIDOKU_WINS || change.charAt(0) == DUIDOKU_LOSES) && change.length() > 2
+                && change.charAt(2) == '+';
+    }
+
+    /** Locks the files for the other programs, waiting until they unlock them
+     * It must be called by a thread synchronized on the object
+     * The lock file is opened for every lock, so that it does not stay open between the reads and writes
+     *
+     * @throws IOException if there is a problem with the file
+     * @param shared true to read the files, so that other programs can read them too, false to change them
+     * @return the lock, that must be given to unlock
+     */
+    private FileLock lock(boolean shared) throws IOException {
+        FileChannel channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            return channel.lock(0, Long.MAX_VALUE, shared);
+        } catch (IOException | RuntimeException exc) {
+            channel.close();
+            throw exc;
+        }
+    }
+
+    /** Unlocks the files for the other programs and closes the lock file
+     *
+     * @throws IOException if there is a problem with the file
+     * @param lock the lock given by lock
+     */
+    private static void unlock(FileLock lock) throws IOException {
+        try {
+            lock.release();
+        } finally {
+            lock.channel().close();
+        }
+    }
+
+    /** Reads the changes that the other programs have written since the last read, or all the files the first time
+     *
+     * @throws IOException if there is a problem with the files
+     * @return the lines of the players that have changed since the last read, by the name of the player
+     */
+    synchronized HashMap<String, String> refresh() throws IOException {
+        HashMap<String, String> changed = new HashMap<>();
+        FileLock lock = lock(true);
+        try {
+            catchUp(changed);
+        } finally {
+            unlock(lock);
+        }
+        return changed;
+    }
+
+    /** Adds the changes of some players at the end of the log
+     * The files stay locked from the read of the changes of the other programs until the write, so the wins and
+     * loses that were added (see added) are written as new values that count the ones of the other programs too
+     * It costs one small write however many players the snapshot has. If the log has become too big it is compacted
+     * in the background
+     *
+     * @throws IOException if there is a problem with the file
+     * @param changes the changes made by change and added by the name of every player, in the order they happened
+     * @return the lines of the players that have changed since the last read, by this or by other programs
+     */
+    synchronized HashMap<String, String> append(Map<String, List<String>> changes) throws IOException {
+        HashMap<String, String> changed = new HashMap<>();
+        FileLock lock = lock(false);
+        try {
+            catchUp(changed);
+            StringBuilder lines = new StringBuilder();
+            for (Map.Entry<String, List<String>> player : changes.entrySet()) {
+                Player stats = playerOf(player.getKey(), players.get(player.getKey()));
+                if (stats == null) { //the stored stats are kept as they are
+                    System.err.println("the changes of " + player.getKey() + " are not stored");
+                    continue;
+                }
+                for (String change : player.getValue()) {
+                    String written = resolve(stats, change);
+                    if (written != null) {
+                        lines.append(player.getKey()).append(',').append(written).append(System.lineSeparator());
+                    }
+                }
+                players.put(player.getKey(), stats.toLine());
+                changed.put(player.getKey(), stats.toLine());
+            }
+            if (lines.length() > 0) {
+                Files.write(log.toPath(), lines.toString().getBytes(StandardCharsets.UTF_8),
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+        } finally {
+            unlock(lock);
+        }
+        if (!compactionQueued && log.length() > COMPACT_AFTER) {
+            compactionQueued = true;
+            compactor.execute(() -> {
+                try {
+                    compact();
+                } catch (IOException exc) {
+                    System.err.println("problem compacting " + log.getPath());
+                }
+            });
+        }
+        return changed;
+    }
+
+    /** Brings the lines of the players up to date with the files, reading them all the first time or after
+     * a compaction
+     * It must be called with the files locked
+     *
+     * @throws IOException if there is a problem with the files
+     * @param changed where the lines that have changed are put, by the name of the player
+     */
+    private void catchUp(Map<String, String> changed) throws IOException {
+        LinkedHashMap<String, List<String>> changes = players == null ? null : readNewChanges();
+        if (changes == null) {
+            players = readAll();
+            changed.putAll(players);
+            return;
+        }
+        for (Map.Entry<String, List<String>> player : changes.entrySet()) {
+            String line = merge(player.getKey(), players.get(player.getKey()), player.getValue());
+            players.put(player.getKey(), line);
+            changed.put(player.getKey(), line);
+        }
+    }
+
+    /** Reads the stats of all the players from the snapshot and the changes after it
+     * It must be called with the files locked
+     *
+     * @throws IOException if there is a problem with the files
+     * @return the line of every player the way Sudoku.Player stores it, by the name of the player
+     */
+    private HashMap<String, String> readAll() throws IOException {
+        HashMap<String, String> all = new HashMap<>();
+        snapshotRead = versionOf(snapshot);
+        if (snapshot.isFile()) {
+            try (BufferedReader read = Files.newBufferedReader(snapshot.toPath(), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = read.readLine()) != null) {
+                    int comma = line.indexOf(',');
+                    if (comma > 0) {
+                        all.put(line.substring(0, comma), line);
+                    }
+                }
+            }
+        }
+        LinkedHashMap<String, List<String>> changes = new LinkedHashMap<>();
+        compactingRead = compacting.isFile();
+        readChanges(compacting, changes);
+        logRead = null;
+        logPosition = 0;
+        readLogChanges(changes);
+        for (Map.Entry<String, List<String>> player : changes.entrySet()) {
+            all.put(player.getKey(), merge(player.getKey(), all.get(player.getKey()), player.getValue()));
+        }
+        return all;
+    }
+
+    /** Reads the changes that have been added to the log after the last read, by this or by other programs
+     * It must be called with the files locked
+     *
+     * @throws IOException if there is a problem with the files
+     * @return the changes by the name of every player, or null if the log has been compacted since
+     * and the files must be read again with readAll
+     */
+    private LinkedHashMap<String, List<String>> readNewChanges() throws IOException {
+        if (!Objects.equals(snapshotRead, versionOf(snapshot)) || compactingRead != compacting.isFile()
+                || logRead != null && (!logRead.equals(keyOf(log)) || log.length() < logPosition)) {
+            return null;
+        }
+        LinkedHashMap<String, List<String>> changes = new LinkedHashMap<>();
+        readLogChanges(changes);
+        return changes;
+    }
+
+    /** Reads the changes of the log after the bytes that have already been read
+     * Only whole lines are read
+     *
+     * @throws IOException if there is a problem with the file
+     * @param changes where the changes of every player are added, by the name of the player
+     */
+    private void readLogChanges(Map<String, List<String>> changes) throws IOException {
+        if (!log.isFile()) {
+            return;
+        }
+        if (logRead == null) { //the log is new
+            logRead = keyOf(log);
+            logPosition = 0;
+        }
+        byte[] bytes;
+        try (RandomAccessFile read = new RandomAccessFile(log, "r")) {
+            bytes = new byte[(int) (read.length() - logPosition)];
+            read.seek(logPosition);
+            read.readFully(bytes);
+        }
+        int end = bytes.length;
+        while (end > 0 && bytes[end - 1] != '\n') {
+            end--;
+        }
+        logPosition += end;
+        for (String line : new String(bytes, 0, end, StandardCharsets.UTF_8).split("\r?\n")) {
+            addChange(line, changes);
+        }
+    }
+
+    /** Reads the changes of a log, if it exists
+     *
+     * @throws IOException if there is a problem with the file
+     * @param file the log
+     * @param changes where the changes of every player are added, by the name of the player
+     */
+    private static void readChanges(File file, Map<String, List<String>> changes) throws IOException {
+        if (!file.isFile()) {
+            return;
+        }
+        try (BufferedReader read = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = read.readLine()) != null) {
+                addChange(line, changes);
+            }
+        }
+    }
+
+    /** Adds a line of a log to the changes of its player
+     *
+     * @param line the line
+     * @param changes the changes of every player, by the name of the player
+     */
+    private static void addChange(String line, Map<String, List<String>> changes) {
+        int comma = line.indexOf(',');
+        if (comma > 0) {
+            changes.computeIfAbsent(line.substring(0, comma), name -> new ArrayList<>())
+                    .add(line.substring(comma + 1));
+        }
+    }
+
+    /** Gives what makes a file different from a file with the same name made after it, so that a renamed log is
+     * found out
+     *
+     * @throws IOException if there is a problem with the file
+     * @param file the file
+     * @return the key of the file, or null if the file doesn't exist
+     */
+    private static Object keyOf(File file) throws IOException {
+        if (!file.exists()) {
+            return null;
+        }
+        BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        return attributes.fileKey() != null ? attributes.fileKey() : attributes.creationTime();
+    }
+
+    /** Gives what changes when a file is replaced or written
+     *
+     * @throws IOException if there is a problem with the file
+     * @param file the file
+     * @return the version of the file, or null if the file doesn't exist
+     */
+    private static Object versionOf(File file) throws IOException {
+        if (!file.exists()) {
+            return null;
+        }
+        return keyOf(file) + " " + file.lastModified() + " " + file.length();
+    }
+
+    /** Writes the changes of the log in the snapshot and deletes them
+     * Only the players with changes are read, the lines of the others are copied as they are. If a compaction
+     * stopped in the middle before, its changes are written now and the log is left for the next compaction
+     * The files stay locked until the compaction ends, so that two programs never compact them together
+     *
+     * @throws IOException if there is a problem with the files
+     */
+    synchronized void compact() throws IOException {
+        compactionQueued = false;
+        FileLock lock = lock(false);
+        try {
+            if (!compacting.exists()) {
+                if (!log.exists()) {
+                    return;
+                }
+                move(log.toPath(), compacting.toPath());
+            }
+            LinkedHashMap<String, List<String>> changes = new LinkedHashMap<>();
+            readChanges(compacting, changes);
+            //a name that no other program uses, so that it never writes in the same temporary file
+            File temporary = new File(snapshot.getAbsoluteFile().getParentFile(),
+                    snapshot.getName() + "." + UUID.randomUUID() + ".tmp");
+            try (FileOutputStream stream = new FileOutputStream(temporary);
+                 BufferedWriter write = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8))) {
+                HashSet<String> written = new HashSet<>();
+                if (snapshot.isFile()) {
+                    try (BufferedReader read = Files.newBufferedReader(snapshot.toPath(), StandardCharsets.UTF_8)) {
+                        String line;
+                        while ((line = read.readLine()) != null) {
+                            int comma = line.indexOf(',');
+                            String name = comma > 0 ? line.substring(0, comma) : null;
+                            if (name != null && changes.containsKey(name)) {
+                                line = merge(name, line, changes.get(name));
+                                written.add(name);
+                            }
+                            write.write(line);
+                            write.newLine();
+                        }
+                    }
+                }
+                for (Map.Entry<String, List<String>> player : changes.entrySet()) {
+                    if (!written.contains(player.getKey())) { //a new player
+                        write.write(merge(player.getKey(), null, player.getValue()));
+                        write.newLine();
+                    }
+                }
+                write.flush();
+                stream.getFD().sync();
+            } catch (IOException exc) {
+                temporary.delete();
+                throw exc;
+            }
+            move(temporary.toPath(), snapshot.toPath());
+            Files.delete(compacting.toPath());
+        } finally {
+            unlock(lock);
+        }
+    }
+
+    /** Renames a file in one step, so that the other programs find either the old file or the new one
+     * If the file system can't do that, the file is renamed the usual way
+     *
+     * @throws IOException if there is a problem with the files
+     * @param from the file
+     * @param to the new name, that is replaced if it exists
+     */
+    private static void move(Path from, Path to) throws IOException {
+        try {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException exc) {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /** Finds the line of a player after some changes
+     *
+     * @param name the name of the player
+     * @param line the line of the player before the changes, or null if the player is new
+     * @param changes the changes of the player in the log
+     * @return the line with the changes, or the same line if it is wrong
+     */
+    static String merge(String name, String line, List<String> changes) {
+        Player player = playerOf(name, line);
+        if (player == null) {
+            System.err.println("the changes of " + name + " are not stored");
+            return line;
+        }
+        for (String change : changes) {
+            resolve(player, change);
+        }
+        return player.toLine();
+    }
+
+    /** Makes a player from their line
+     *
+     * @param name the name of the player
+     * @param line the line of the player, or null if the player is new
+     * @return the player, or null if the line is wrong
+     */
+    private static Player playerOf(String name, String line) {
+        Player player = new Player(name);
+        if (line != null) {
+            try {
+                player.readLine(line);
+            } catch (IllegalArgumentException exc) {
+                System.err.println("file storing is wrong for " + name);
+                return null;
+            }
+        }
+        return player;
+    }
+
+    /** Changes a stat of a player and gives the change the way it is written in the log
+     *
+     * @param player the player
+     * @param change the change
+     * @return the change, with the new value instead of what was added, or null if the change is wrong
+     */
+    private static String resolve(Player player, String change) {
+        try {
+            player.applyChange(change);
+        } catch (IllegalArgumentException exc) {
+            System.err.println("log storing is wrong for " + player.getName());
+            return null;
+        }
+        if (!isAdded(change)) {
+            return change;
+        }
+        char kind = change.charAt(0);
+        return change(kind, kind == DUIDOKU_WINS ? player.getDuidokuWins() : player.getDuidokuLoses());
+    }
+}
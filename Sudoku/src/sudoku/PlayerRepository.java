@@ -0,0 +1,333 @@
+package sudoku;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**@author Alexandros Stergiopoulos & Christos Christidis
+ *
+ * The class Sudoku.PlayerRepository keeps the stats of the players in memory, so that a login or a save
+ * after a game never waits for the file
+ * When a file of players is first used, it is read once with its log (see Sudoku.PlayerLog) and the line
+ * of every player is kept in a map by the name of the player. A login is only a search in the map, with the changes
+ * of the player that haven't been written yet. A save only puts the changes in a queue, until a background thread
+ * writes the changes of all the players at the end of the log with one write. This happens every flush interval
+ * (DEFAULT_FLUSH_INTERVAL if it isn't set) and when the program ends, and every time the changes that other programs
+ * have written in the log meanwhile are read too and put in the map. So a login sees the changes of another program
+ * that uses the same file after one flush interval at most
+ * The name must be the whole name before the first comma of the line, so "Al" doesn't find "Alex"
+ *
+ * The threads that save or login different players don't wait for each other: every player is locked with one of
+ * STRIPES locks, found by the hash of the name, and every lock has its own queue. Only the writes of the queues and
+ * the reads of the files are done by one thread at a time, and they lock a player only to take the queue or to put
+ * the new lines in the map
+ *
+ */
+public final class PlayerRepository {
+    /**
+     * The milliseconds between two writes of the changes, if setFlushInterval isn't called
+     */
+    public static final long DEFAULT_FLUSH_INTERVAL = 1000;
+
+    /**
+     * How many locks the players share
+     */
+    static final int STRIPES = 16;
+
+    private static final HashMap<String, PlayerRepository> opened = new HashMap<>();
+
+    private static final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "player-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(PlayerRepository::flushAll, "player-writer-shutdown"));
+    }
+
+    private final PlayerLog log;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    /**
+     * The line of every player as the files had it at the last flush, by the name of the player
+     * A line is only changed with the lock of its player
+     */
+    private final ConcurrentHashMap<String, String> players = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingWrites = new AtomicInteger();
+    private ScheduledFuture<?> flushing;
+    private long flushInterval;
+
+    /**
+     * Only one thread writes or reads the files at a time, so that the changes are written in the order they were
+     * saved. The metrics are used with this lock
+     */
+    private final Object flushLock = new Object();
+    private long flushes;
+    private long lastFlushNanos;
+    private long totalFlushNanos;
+
+    /**
+     * The lock of some players and the changes of those players that haven't been written: the ones in the queue,
+     * and the ones that a flush is writing now, that stay there until the new lines are in the map
+     */
+    private static final class Stripe {
+        private List<String[]> pending = new ArrayList<>();
+        private List<String[]> writing = new ArrayList<>();
+    }
+
+    /** Constructor that reads the files
+     *
+     * @throws IOException if there is a problem with the files
+     * @param log the log of the file of players
+     */
+    private PlayerRepository(PlayerLog log) throws IOException {
+        this.log = log;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+        players.putAll(log.refresh());
+        setFlushInterval(DEFAULT_FLUSH_INTERVAL);
+    }
+
+    /** Gives the repository of a file of players, the same object for the same file
+     *
+     * @throws IOException if the path of the file can't be found
+     * @param fileName the name of the file
+     * @return the repository
+     */
+    public static synchronized PlayerRepository of(String fileName) throws IOException {
+        String path = new File(fileName).getCanonicalPath();
+        PlayerRepository repository = opened.get(path);
+        if (repository == null) {
+            repository = new PlayerRepository(PlayerLog.of(fileName));
+            opened.put(path, repository);
+        }
+        return repository;
+    }
+
+    /** Writes the changes of every repository, used when the program ends
+     * A repository with no changes is not flushed, because the changes of the other programs are not needed then
+     *
+     */
+    private static void flushAll() {
+        List<PlayerRepository> repositories;
+        synchronized (PlayerRepository.class) {
+            repositories = new ArrayList<>(opened.values());
+        }
+        for (PlayerRepository repository : repositories) {
+            if (repository.getPendingWrites() == 0) {
+                continue;
+            }
+            try {
+                repository.flush();
+            } catch (IOException exc) {
+                System.err.println("problem saving the stats of the players");
+            }
+        }
+    }
+
+    /** Setter for how often the changes are written
+     *
+     * @throws IllegalArgumentException if the interval is not positive
+     * @param millis the milliseconds between two writes
+     */
+    public synchronized void setFlushInterval(long millis) {
+        if (millis < 1) {
+            throw new IllegalArgumentException("flush interval must be positive");
+        }
+        if (flushing != null) {
+            flushing.cancel(false);
+        }
+        flushInterval = millis;
+        flushing = writer.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (IOException exc) {
+                System.err.println("problem saving the stats of the players");
+            }
+        }, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /** Getter for how often the changes are written
+     *
+     * @return the milliseconds between two writes
+     */
+    public synchronized long getFlushInterval(){return flushInterval;}
+
+    /** Gives the lock of a player
+     *
+     * @param name the name of the player
+     * @return the lock that the player shares with the players whose names have the same hash
+     */
+    private Stripe stripeOf(String name) {
+        return stripes[stripeIndexOf(name)];
+    }
+
+    private static int stripeIndexOf(String name) {
+        return (name.hashCode() & 0x7fffffff) % STRIPES;
+    }
+
+    /** Loads the stats of a player
+     * The files are not read, the line of the player is the one of the last flush with the changes that
+     * haven't been written yet
+     *
+     * @throws IllegalArgumentException (or NumberFormatException) if the stats were not stored the right way
+     * @param player the player whose name is searched, that gets the stats
+     * @return true if the player was found
+     */
+    boolean load(Player player) {
+        String name = player.getName();
+        String line;
+        Stripe stripe = stripeOf(name);
+        synchronized (stripe) {
+            line = players.get(name);
+            List<String> changes = new ArrayList<>();
+            for (List<String[]> queue : List.of(stripe.writing, stripe.pending)) {
+                for (String[] change : queue) {
+                    if (change[0].equals(name)) {
+                        changes.add(change[1]);
+                    }
+                }
+            }
+            if (!changes.isEmpty()) {
+                line = PlayerLog.merge(name, line, changes);
+            }
+        }
+        if (line == null) {
+            return false;
+        }
+        player.readLine(line);
+        return true;
+    }
+
+    /** Saves the changes of a player in the queue of the changes that will be written
+     * Only the lock of the player is used, so it never waits for the files
+     *
+     * @param name the name of the player
+     * @param changes the changes made by PlayerLog.change and PlayerLog.added, in the order they happened
+     */
+    void save(String name, List<String> changes) {
+        Stripe stripe = stripeOf(name);
+        synchronized (stripe) {
+            pendingWrites.addAndGet(changes.size());
+            for (String change : changes) {
+                stripe.pending.add(new String[]{name, change});
+            }
+        }
+    }
+
+    /** Writes the changes in the queues at the end of the log now and reads the changes of the other programs
+     * If the write fails the changes go back to the start of the queues
+     *
+     * @throws IOException if there is a problem with the file
+     */
+    public void flush() throws IOException {
+        synchronized (flushLock) {
+            LinkedHashMap<String, List<String>> batch = new LinkedHashMap<>();
+            int taken = 0;
+            for (Stripe stripe : stripes) {
+                synchronized (stripe) {
+                    stripe.writing = stripe.pending;
+                    stripe.pending = new ArrayList<>();
+                    for (String[] change : stripe.writing) {
+                        batch.computeIfAbsent(change[0], name -> new ArrayList<>()).add(change[1]);
+                    }
+                    taken += stripe.writing.size();
+                }
+            }
+            long start = System.nanoTime();
+            HashMap<String, String> changed;
+            try {
+                changed = taken == 0 ? log.refresh() : log.append(batch);
+            } catch (IOException exc) { //the changes saved meanwhile go after the ones that failed
+                for (Stripe stripe : stripes) {
+                    synchronized (stripe) {
+                        stripe.writing.addAll(stripe.pending);
+                        stripe.pending = stripe.writing;
+                        stripe.writing = new ArrayList<>();
+                    }
+                }
+                throw exc;
+            }
+            long time = System.nanoTime() - start;
+            List<List<Map.Entry<String, String>>> lines = new ArrayList<>();
+            for (int i = 0; i < STRIPES; i++) {
+                lines.add(new ArrayList<>());
+            }
+            for (Map.Entry<String, String> line : changed.entrySet()) {
+                lines.get(stripeIndexOf(line.getKey())).add(line);
+            }
+            for (int i = 0; i < STRIPES; i++) {
+                synchronized (stripes[i]) {
+                    for (Map.Entry<String, String> line : lines.get(i)) {
+                        players.put(line.getKey(), line.getValue());
+                    }
+                    stripes[i].writing = new ArrayList<>();
+                }
+            }
+            if (taken > 0) {
+                pendingWrites.addAndGet(-taken);
+                flushes++;
+                lastFlushNanos = time;
+                totalFlushNanos += time;
+            }
+        }
+    }
+
+    /** Writes the changes in the queues and then moves all the changes of the log in the file of players
+     * (see PlayerLog.compact). It also happens in the background when the log gets big
+     *
+     * @throws IOException if there is a problem with the files
+     */
+    public void compact() throws IOException {
+        flush();
+        log.compact();
+    }
+
+    /** Getter for the changes that haven't been written yet
+     *
+     * @return how many changes are in the queue
+     */
+    public int getPendingWrites(){return pendingWrites.get();}
+
+    /** Getter for how many times changes have been written
+     *
+     * @return the number of writes
+     */
+    public long getFlushCount() {
+        synchronized (flushLock) {
+            return flushes;
+        }
+    }
+
+    /** Getter for how long the last write took
+     *
+     * @return the milliseconds of the last write, 0 if nothing has been written
+     */
+    public double getLastFlushMillis() {
+        synchronized (flushLock) {
+            return lastFlushNanos / 1e6;
+        }
+    }
+
+    /** Getter for how long a write takes on average
+     *
+     * @return the milliseconds of the writes on average, 0 if nothing has been written
+     */
+    public double getAverageFlushMillis() {
+        synchronized (flushLock) {
+            return flushes == 0 ? 0 : totalFlushNanos / 1e6 / flushes;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package sudoku;
+
+import java.io.IOException;
+
+/**@author Alexandros Stergiopoulos & Christos Christidis
+ *
+ * The class Sudoku.PuzzleCatalog tells which puzzles a puzzle file has, so that the boards choose among all of them
+ * and not only among the first 10
+ * The codes come from the index of a text file (Sudoku.PuzzleIndex) or from the records of a binary file
+ * (Sudoku.PuzzleStore). Both are made when the file is first opened and kept in memory until the file changes,
+ * so asking again costs almost nothing
+ * If the file can't be read, the boards fall back to the codes 1 to 10 of the shipped files
+ * The index and the binary file also keep the grades of the puzzles, so the difficulty filter of
+ * Sudoku.ClassicBoard doesn't read the file either
+ *
+ */
+final class PuzzleCatalog {
+    /**
+     * How many puzzles the shipped files have, used when a file can't be read
+     */
+    static final int DEFAULT_COUNT = 10;
+
+    private static final int[] DEFAULT_CODES = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+
+    private PuzzleCatalog() {
+    }
+
+    /** Gives the codes of the puzzles of a file
+     * The array is not copied, so it must not be changed
+     *
+     * @throws IOException if there is a problem with the file
+     * @throws NumberFormatException if a puzzle is not stored the right way
+     * @param fileName the name of the file, text or binary
+     * @param killer if the file has killer puzzles or classic ones
+     * @return the codes in ascending order
+     */
+    static int[] codesOf(String fileName, boolean killer) throws IOException {
+        if (PuzzleStore.isStore(fileName)) {
+            return PuzzleStore.of(fileName).codes();
+        }
+        return PuzzleIndex.of(fileName, killer).getCodes();
+    }
+
+    /** Finds the puzzles of a file whose grade (see Sudoku.Grader) has another difficulty
+     * The puzzles without a grade are never added
+     *
+     * @throws IOException if there is a problem with the file
+     * @throws NumberFormatException if a puzzle is not stored the right way
+     * @param fileName the name of the file, text or binary
+     * @param killer if the file has killer puzzles or classic ones
+     * @param difficulty the difficulty that is kept
+     * @param skipped where the codes of the puzzles of the other difficulties are added
+     */
+    static void addCodesWithOtherDifficulty(String fileName, boolean killer, Difficulty difficulty, WonGames skipped)
+            throws IOException {
+        if (PuzzleStore.isStore(fileName)) {
+            PuzzleStore store = PuzzleStore.of(fileName);
+            int[] codes = store.codes();
+            for (int record = 0; record < codes.length; record++) {
+                addIfOtherDifficulty(codes[record], store.gradeOf(record), difficulty, skipped);
+            }
+            return;
+        }
+        PuzzleIndex index = PuzzleIndex.of(fileName, killer);
+        int[] codes = index.getCodes();
+        for (int position = 0; position < codes.length; position++) {
+            addIfOtherDifficulty(codes[position], index.gradeAt(position), difficulty, skipped);
+        }
+    }
+
+    /** Adds a code to the skipped ones if its puzzle has a grade of another difficulty
+     *
+     * @param code the code of the puzzle
+     * @param grade the grade of the puzzle, -1 if it has none
+     * @param difficulty the difficulty that is kept
+     * @param skipped the skipped codes
+     */
+    private static void addIfOtherDifficulty(int code, int grade, Difficulty difficulty, WonGames skipped) {
+        if (code > 0 && grade >= 0 && Difficulty.ofScore(grade) != difficulty) {
+            skipped.add(code);
+        }
+    }
+
+    /** Gives the codes of the puzzles of a file, or the codes 1 to 10 if the file can't be read or is empty
+     * The array is not copied, so it must not be changed
+     *
+     * @param fileName the name of the file, text or binary
+     * @param killer if the file has killer puzzles or classic ones
+     * @return the codes in ascending order
+     */
+    static int[] codesOrDefault(String fileName, boolean killer) {
+        try {
+            int[] codes = codesOf(fileName, killer);
+            if (codes.length > 0) {
+                return codes;
+            }
+        } catch (IOException | NumberFormatException exc) {
+            System.err.println("Problem with file " + fileName + ", the first " + DEFAULT_COUNT + " codes are used");
+        }
+        return DEFAULT_CODES;
+    }
+}
@@ -0,0 +1,236 @@
+package sudoku;
+
+import java.util.Random;
+
+/**@author Alexandros Stergiopoulos & Christos Christidis
+ *
+ * The class Sudoku.PuzzleGenerator makes new classic puzzles that have exactly one solution, for any size that
+ * is a perfect square (4, 9, 16, 25...)
+ * First it makes a random solved board: the blocks of the main diagonal don't share any row or column,
+ * so they are filled with random orders of the numbers, the rest is solved with propagation and search
+ * (if that needs too many guesses, it starts again with other diagonal blocks),
+ * and then the numbers are renamed and the rows and columns are shuffled inside their bands
+ * Then it empties the boxes one by one in a random order. A box stays empty only if the puzzle keeps
+ * its single solution, which is checked by looking for a solution with a different number in that box
+ * On the big boards a few of these checks can take very long, so a check that needs too many guesses gives up
+ * and the box keeps its number: the puzzle may have a few more numbers than needed, but it is still unique
+ * The generated puzzles don't come from the file, so the boards that load them get the code 0
+ *
+ */
+public class PuzzleGenerator {
+    /**
+     * The most guesses a check of a box (or the solving of the diagonal blocks) can make before it gives up
+     */
+    private static final int GUESSES_PER_CHECK = 1000;
+
+    private final Random random;
+
+    /**
+     * The search of the checks and of the random solution, which keeps the first solution it finds
+     */
+    private final GridSearch search = new GridSearch() {
+        @Override
+        boolean solved(CandidateGrid grid) {
+            solution = grid;
+            return true;
+        }
+    };
+    private CandidateGrid solution;
+
+    /** Constructor with a random seed
+     *
+     */
+    public PuzzleGenerator() {
+        this(new Random());
+    }
+
+    /** Constructor with a given seed, so that the same puzzles are generated every time
+     *
+     * @param seed the seed of the random numbers
+     */
+    public PuzzleGenerator(long seed) {
+        this(new Random(seed));
+    }
+
+    /** Constructor with a given source of random numbers
+     *
+     * @param random the source of random numbers
+     */
+    PuzzleGenerator(Random random) {
+        this.random = random;
+    }
+
+    /** Makes a random solved board
+     *
+     * @throws IllegalArgumentException if the size is not a perfect square
+     * @param size the size of the board
+     * @return the numbers of the board
+     */
+    public int[][] generateSolution(int size) {
+        BoardGeometry geometry = geometryOf(size);
+        return AbstractSolver.toSquareArray(randomSolution(geometry), size);
+    }
+
+    /** Makes a puzzle with a unique solution where no more box can be emptied
+     *
+     * @throws IllegalArgumentException if the size is not a perfect square
+     * @param size the size of the board
+     * @return the numbers of the puzzle, 0 for the empty boxes
+     */
+    public int[][] generate(int size) {
+        return generate(size, 0);
+    }
+
+    /** Makes a puzzle with a unique solution that keeps at least some numbers
+     * Puzzles with more numbers are easier and faster to make
+     *
+     * @throws IllegalArgumentException if the size is not a perfect square
+     * @param size the size of the board
+     * @param clues the fewest numbers the puzzle will have
+     * @return the numbers of the puzzle, 0 for the empty boxes
+     */
+    public int[][] generate(int size, int clues) {
+        BoardGeometry geometry = geometryOf(size);
+        int[] puzzle = randomSolution(geometry);
+        int filled = puzzle.length;
+        int[] order = permutation(puzzle.length);
+        for (int box : order) {
+            if (filled <= clues) {
+                break;
+            }
+            int number = puzzle[box];
+            puzzle[box] = 0;
+            if (hasAnotherSolution(geometry, puzzle, box, number)) {
+                puzzle[box] = number;
+            } else {
+                filled--;
+            }
+        }
+        return AbstractSolver.toSquareArray(puzzle, size);
+    }
+
+    /** Makes a classic board with a new puzzle loaded, not from the file
+     *
+     * @throws IllegalArgumentException if the size is not a perfect square
+     * @param size the size of the board
+     * @param wordoku if the board is wordoku or not
+     * @return the board, with code 0
+     */
+    public ClassicBoard generateBoard(int size, boolean wordoku) {
+        ClassicBoard board = ClassicBoard.withoutFile(size, wordoku);
+        board.loadPuzzle(generate(size));
+        return board;
+    }
+
+    /** Gives the geometry of a size, which must be a perfect square
+     *
+     * @throws IllegalArgumentException if the size is not a perfect square
+     * @param size the size of the board
+     * @return the geometry
+     */
+    private static BoardGeometry geometryOf(int size) {
+        BoardGeometry geometry = BoardGeometry.of(size);
+        if (!geometry.isSquare()) {
+            throw new IllegalArgumentException("size of board must be a perfect square");
+        }
+        return geometry;
+    }
+
+    /** Makes a random solved board in a flat array
+     *
+     * @param geometry the geometry of the board
+     * @return the numbers of the board
+     */
+    private int[] randomSolution(BoardGeometry geometry) {
+        int size = geometry.size;
+        int sqrt = geometry.sqrtSize;
+        CandidateGrid solved = null;
+        while (solved == null) { //some diagonals can't be completed or need too many guesses, then others are tried
+            int[] grid = new int[geometry.numberOfBoxes];
+            for (int block = 0; block < sqrt; block++) {
+                int[] numbers = permutation(size);
+                int[] blockBoxes = geometry.blockBoxes[block * sqrt + block];
+                for (int i = 0; i < size; i++) {
+                    grid[blockBoxes[i]] = numbers[i] + 1;
+                }
+            }
+            solved = solve(new CandidateGrid(geometry, grid));
+        }
+        int[] numbers = permutation(size);
+        int[] rows = linePermutation(sqrt);
+        int[] columns = linePermutation(sqrt);
+        int[] result = new int[geometry.numberOfBoxes];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                result[geometry.box(i, j)] = numbers[solved.values[geometry.box(rows[i], columns[j])] - 1] + 1;
+            }
+        }
+        return result;
+    }
+
+    /** Checks if a puzzle has a solution with a different number in a box than the one it had
+     *
+     * @param geometry the geometry of the board
+     * @param puzzle the puzzle, with the box empty
+     * @param box the box
+     * @param number the number it had
+     * @return if there is a solution with another number in the box, or the check gave up
+     */
+    private boolean hasAnotherSolution(BoardGeometry geometry, int[] puzzle, int box, int number) {
+        CandidateGrid grid = new CandidateGrid(geometry, puzzle);
+        if (!grid.eliminate(box, Board.bit(number))) {
+            return false;
+        }
+        return solve(grid) != null || search.gaveUp();
+    }
+
+    /** Finds a solution of a grid with propagation and guessing on the box with the fewest candidates,
+     * making at most GUESSES_PER_CHECK guesses
+     *
+     * @param grid the grid, which is changed
+     * @return the solved grid, or null if there is no solution or there are no guesses left
+     */
+    private CandidateGrid solve(CandidateGrid grid) {
+        solution = null;
+        search.setGuesses(GUESSES_PER_CHECK);
+        search.search(grid);
+        return search.gaveUp() ? null : solution;
+    }
+
+    /** Makes an order of the rows (or columns) that keeps a solved board solved:
+     * the bands are reordered and the lines inside every band too
+     *
+     * @param sqrt the size of the side of a block
+     * @return for every new line, the old line
+     */
+    private int[] linePermutation(int sqrt) {
+        int[] bands = permutation(sqrt);
+        int[] lines = new int[sqrt * sqrt];
+        for (int band = 0; band < sqrt; band++) {
+            int[] inside = permutation(sqrt);
+            for (int k = 0; k < sqrt; k++) {
+                lines[band * sqrt + k] = bands[band] * sqrt + inside[k];
+            }
+        }
+        return lines;
+    }
+
+    /** Makes a random order of the numbers from 0 to n-1
+     *
+     * @param n how many numbers
+     * @return the numbers in a random order
+     */
+    private int[] permutation(int n) {
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temp = result[i];
+            result[i] = result[j];
+            result[j] = temp;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,262 @@
+package sudoku;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**@author Alexandros Stergiopoulos & Christos Christidis
+ *
+ * The class Sudoku.PuzzleIndex knows where every puzzle of a puzzle file starts, so that loadBoard can jump
+ * to the puzzle it needs instead of reading the file from the start
+ * The index is made by reading the file once the way Sudoku.PuzzleValidator does: a line with the code, then
+ * the rows of the puzzle (as many as the numbers of the first row) and, for killer files, the line with the sums
+ * For every code it keeps the position (in bytes) of the first row of its puzzle and the grade that
+ * Sudoku.Grader wrote after the code, if there is one, so that the grades are never read from the text again
+ * It is saved next to the puzzle file, with ".idx" after its name, and kept in memory too. Both copies remember
+ * the time the puzzle file was last modified and its length, and when one of them changes the index is made again
+ * If the index can't be saved (eg the folder is read only) it is only kept in memory
+ *
+ */
+final class PuzzleIndex {
+    /**
+     * The first number of a saved index, to recognise the files of this version
+     */
+    private static final int MAGIC = 0x53494459;
+
+    private static final HashMap<String, PuzzleIndex> loaded = new HashMap<>();
+
+    private final long lastModified;
+    private final long length;
+    private final boolean killer;
+    private final int[] codes;
+    private final long[] offsets;
+    private final byte[] grades;
+
+    private PuzzleIndex(long lastModified, long length, boolean killer, int[] codes, long[] offsets, byte[] grades) {
+        this.lastModified = lastModified;
+        this.length = length;
+        this.killer = killer;
+        this.codes = codes;
+        this.offsets = offsets;
+        this.grades = grades;
+    }
+
+    /** Gives the index of a puzzle file: the one in memory, or the saved one, or a new one if the file has changed
+     *
+     * @throws IOException if there is a problem with the file
+     * @throws NumberFormatException if a puzzle is not stored the right way
+     * @param fileName the name of the puzzle file
+     * @param killer if the file has killer puzzles or classic ones
+     * @return the index
+     */
+    static synchronized PuzzleIndex of(String fileName, boolean killer) throws IOException {
+        File file = new File(fileName);
+        if (!file.isFile()) {
+            throw new IOException("no puzzle file " + fileName);
+        }
+        String key = file.getCanonicalPath() + (killer ? " killer" : "");
+        PuzzleIndex index = loaded.get(key);
+        if (index == null || !index.matches(file, killer)) {
+            index = read(new File(fileName + ".idx"));
+            if (index == null || !index.matches(file, killer)) {
+                index = build(file, killer);
+                index.save(new File(fileName + ".idx"));
+            }
+            loaded.put(key, index);
+        }
+        return index;
+    }
+
+    /** Gives the position of the first row of a puzzle
+     *
+     * @param code the code of the puzzle
+     * @return the position in bytes, or -1 if the file has no puzzle with this code
+     */
+    long offsetOf(int code) {
+        int position = Arrays.binarySearch(codes, code);
+        return position < 0 ? -1 : offsets[position];
+    }
+
+    /** Gives the codes of all the puzzles of the file
+     * The array is not copied, so it must not be changed
+     *
+     * @return the codes in ascending order
+     */
+    int[] getCodes() {
+        return codes;
+    }
+
+    /** Gives the grade of a puzzle (see Sudoku.Grader)
+     *
+     * @param position the position of the code in getCodes
+     * @return the grade, or -1 if it has no grade
+     */
+    int gradeAt(int position) {
+        return grades[position];
+    }
+
+    private boolean matches(File file, boolean killer) {
+        return lastModified == file.lastModified() && length == file.length() && this.killer == killer;
+    }
+
+    /** Reads a puzzle file and finds where its puzzles start
+     * If a code is found twice, the first puzzle is kept, like the first match of a scan of the file
+     *
+     * @throws IOException if there is a problem with the file
+     * @throws NumberFormatException if a puzzle is not stored the right way
+     */
+    private static PuzzleIndex build(File file, boolean killer) throws IOException {
+        long lastModified = file.lastModified();
+        long length = file.length();
+        HashMap<Integer, Long> found = new HashMap<>();
+        HashMap<Integer, Integer> foundGrades = new HashMap<>();
+        try (LineReader read = new LineReader(new FileInputStream(file))) {
+            String line;
+            while ((line = read.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                int code = ClassicBoard.codeOf(line);
+                if (code < 0) {
+                    throw new NumberFormatException("expected the code of a puzzle, found: " + line);
+                }
+                long offset = read.position;
+                String firstRow = read.readLine();
+                if (firstRow == null) {
+                    throw new NumberFormatException("file ended after the code " + code);
+                }
+                if (found.putIfAbsent(code, offset) == null) {
+                    foundGrades.put(code, ClassicBoard.gradeOf(line));
+                }
+                int rest = firstRow.trim().split(" ").length - 1 + (killer ? 1 : 0);
+                for (int i = 0; i < rest; i++) {
+                    if (read.readLine() == null) {
+                        throw new NumberFormatException("file ended inside the puzzle " + code);
+                    }
+                }
+            }
+        }
+        int[] codes = found.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        long[] offsets = new long[codes.length];
+        byte[] grades = new byte[codes.length];
+        for (int i = 0; i < codes.length; i++) {
+            offsets[i] = found.get(codes[i]);
+            grades[i] = (byte) Math.max(-1, Math.min(Byte.MAX_VALUE, foundGrades.get(codes[i])));
+        }
+        return new PuzzleIndex(lastModified, length, killer, codes, offsets, grades);
+    }
+
+    /** Reads a saved index
+     *
+     * @param indexFile the file of the index
+     * @return the index, or null if there is no saved index or it can't be read
+     */
+    private static PuzzleIndex read(File indexFile) {
+        if (!indexFile.isFile()) {
+            return null;
+        }
+        try (DataInputStream read = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (read.readInt() != MAGIC) {
+                return null;
+            }
+            long lastModified = read.readLong();
+            long length = read.readLong();
+            boolean killer = read.readBoolean();
+            int count = read.readInt();
+            int[] codes = new int[count];
+            long[] offsets = new long[count];
+            byte[] grades = new byte[count];
+            for (int i = 0; i < count; i++) {
+                codes[i] = read.readInt();
+                offsets[i] = read.readLong();
+                grades[i] = read.readByte();
+            }
+            return new PuzzleIndex(lastModified, length, killer, codes, offsets, grades);
+        } catch (IOException | NegativeArraySizeException exc) {
+            return null; //a broken index is made again
+        }
+    }
+
+    /** Saves the index, first in a temporary file that then replaces the old index,
+     * so that an index is never read half written
+     *
+     * @param indexFile the file of the index
+     */
+    private void save(File indexFile) {
+        File temporary = new File(indexFile.getPath() + ".tmp");
+        try (DataOutputStream write = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+            write.writeInt(MAGIC);
+            write.writeLong(lastModified);
+            write.writeLong(length);
+            write.writeBoolean(killer);
+            write.writeInt(codes.length);
+            for (int i = 0; i < codes.length; i++) {
+                write.writeInt(codes[i]);
+                write.writeLong(offsets[i]);
+                write.writeByte(grades[i]);
+            }
+        } catch (IOException exc) {
+            temporary.delete();
+            return; //the index stays only in memory
+        }
+        try {
+            Files.move(temporary.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException exc) {
+            temporary.delete();
+        }
+    }
+
+    /**
+     * Reads the lines of a file like BufferedReader, but also counts the bytes that have been read,
+     * which BufferedReader can't tell because it reads ahead. The puzzle files only have ASCII characters
+     */
+    private static final class LineReader implements AutoCloseable {
+        private final InputStream in;
+        private final byte[] buffer = new byte[1 << 16];
+        private final StringBuilder line = new StringBuilder();
+        private int next;
+        private int end;
+        private long position;
+
+        LineReader(InputStream in) {
+            this.in = in;
+        }
+
+        String readLine() throws IOException {
+            line.setLength(0);
+            while (true) {
+                if (next == end) {
+                    end = in.read(buffer);
+                    next = 0;
+                    if (end <= 0) {
+                        end = 0;
+                        return line.length() == 0 ? null : line.toString();
+                    }
+                }
+                int character = buffer[next++];
+                position++;
+                if (character == '\n') {
+                    return line.toString();
+                }
+                if (character != '\r') {
+                    line.append((char) character);
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package sudoku;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**@author Alexandros Stergiopoulos & Christos Christidis
+ *
+ * The class Sudoku.PuzzlePool keeps generated puzzles ready, so that a game never waits for the generator
+ * (a 25x25 puzzle takes seconds to generate, which would freeze the window)
+ * For every size and difficulty that has been asked there is a queue of puzzles, and worker threads keep
+ * generating in the background until every queue has depth puzzles, counting the ones being generated
+ * Taking a puzzle only removes it from its queue. Only when the queue is empty the puzzle is generated
+ * by the thread that asks for it, which counts as a miss
+ * The workers are daemon threads with the lowest priority, so they never keep the program open and
+ * they let the window run first
+ *
+ */
+public class PuzzlePool {
+    /**
+     * The most puzzles generated for one place of a queue while looking for the right grade
+     */
+    private static final int GRADE_TRIES = 20;
+
+    private static PuzzlePool shared;
+
+    private final int depth;
+    private final ExecutorService workers;
+    private final ConcurrentHashMap<Integer, Shelf> shelves = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    /** The queue of one size and difficulty with its counters
+     *
+     */
+    private static final class Shelf {
+        final int size;
+        final Difficulty difficulty;
+        final ArrayBlockingQueue<int[][]> puzzles;
+        final AtomicInteger pending = new AtomicInteger();
+        final LongAdder refills = new LongAdder();
+        final LongAdder refillNanos = new LongAdder();
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+
+        Shelf(int size, Difficulty difficulty, int depth) {
+            this.size = size;
+            this.difficulty = difficulty;
+            puzzles = new ArrayBlockingQueue<>(depth);
+        }
+    }
+
+    /** Constructor
+     *
+     * @throws IllegalArgumentException if the depth or the number of threads isn't positive
+     * @param depth how many puzzles every queue keeps ready
+     * @param threads how many threads generate puzzles
+     */
+    public PuzzlePool(int depth, int threads) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("depth must be positive");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        this.depth = depth;
+        workers = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "puzzle-pool");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /** Gives the pool that the boards use, made the first time it is asked
+     * It keeps 3 puzzles of every kind ready and uses half of the cores
+     *
+     * @return the shared pool
+     */
+    public static synchronized PuzzlePool shared() {
+        if (shared == null) {
+            shared = new PuzzlePool(3, Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        }
+        return shared;
+    }
+
+    /** Starts filling the queue of a size and difficulty, so that the puzzles are ready when they are asked
+     *
+     * @throws IllegalArgumentException if the size is not a perfect square
+     * @param size the size of the board
+     * @param difficulty the difficulty
+     */
+    public void prepare(int size, Difficulty difficulty) {
+        shelf(size, difficulty);
+    }
+
+    /** Gives a puzzle with a unique solution, from the queue if it has one, or else generated right now
+     * Either way, the workers then fill the queue again
+     *
+     * @throws IllegalArgumentException if the size is not a perfect square
+     * @param size the size of the board
+     * @param difficulty the difficulty
+     * @return the numbers of the puzzle, 0 for the empty boxes
+     */
+    public int[][] take(int size, Difficulty difficulty) {
+        Shelf shelf = shelf(size, difficulty);
+        int[][] puzzle = shelf.puzzles.poll();
+        if (puzzle == null) {
+            shelf.misses.increment();
+            puzzle = generate(shelf);
+        } else {
+            shelf.hits.increment();
+        }
+        refill(shelf);
+        return puzzle;
+    }
+
+    /** Getter for the depth of a queue
+     *
+     * @param size the size of the board
+     * @param difficulty the difficulty
+     * @return how many puzzles are ready right now
+     */
+    public int getDepth(int size, Difficulty difficulty) {
+        Shelf shelf = shelves.get(key(size, difficulty));
+        return shelf == null ? 0 : shelf.puzzles.size();
+    }
+
+    /** Getter for the refill latency of a queue
+     *
+     * @param size the size of the board
+     * @param difficulty the difficulty
+     * @return the average time in milliseconds that a worker needed to generate a puzzle for it, 0 if none yet
+     */
+    public double getAverageRefillMillis(int size, Difficulty difficulty) {
+        Shelf shelf = shelves.get(key(size, difficulty));
+        if (shelf == null || shelf.refills.sum() == 0) {
+            return 0;
+        }
+        return shelf.refillNanos.sum() / 1e6 / shelf.refills.sum();
+    }
+
+    /** Getter for the hits of a queue
+     *
+     * @param size the size of the board
+     * @param difficulty the difficulty
+     * @return how many puzzles were taken ready from the queue
+     */
+    public long getHits(int size, Difficulty difficulty) {
+        Shelf shelf = shelves.get(key(size, difficulty));
+        return shelf == null ? 0 : shelf.hits.sum();
+    }
+
+    /** Getter for the misses of a queue
+     *
+     * @param size the size of the board
+     * @param difficulty the difficulty
+     * @return how many puzzles had to be generated while the caller waited, because the queue was empty
+     */
+    public long getMisses(int size, Difficulty difficulty) {
+        Shelf shelf = shelves.get(key(size, difficulty));
+        return shelf == null ? 0 : shelf.misses.sum();
+    }
+
+    /** Stops the workers. The puzzles that are ready can still be taken, and after them every take generates
+     *
+     */
+    public void shutdown() {
+        closed = true;
+        workers.shutdownNow();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (Shelf shelf : shelves.values()) {
+            text.append(shelf.size).append('x').append(shelf.size).append(' ').append(shelf.difficulty)
+                    .append(": depth ").append(shelf.puzzles.size())
+                    .append(", hits ").append(shelf.hits.sum())
+                    .append(", misses ").append(shelf.misses.sum())
+                    .append(String.format(", refill %.1f ms%n", getAverageRefillMillis(shelf.size, shelf.difficulty)));
+        }
+        return text.toString();
+    }
+
+    /** Gives the queue of a size and difficulty, making it and starting to fill it the first time
+     *
+     * @throws IllegalArgumentException if the size is not a perfect square
+     * @param size the size of the board
+     * @param difficulty the difficulty
+     * @return the queue
+     */
+    private Shelf shelf(int size, Difficulty difficulty) {
+        Shelf shelf = shelves.get(key(size, difficulty));
+        if (shelf != null) {
+            return shelf;
+        }
+        if (!BoardGeometry.of(size).isSquare()) {
+            throw new IllegalArgumentException("size of board must be a perfect square");
+        }
+        Shelf made = new Shelf(size, difficulty, depth);
+        shelf = shelves.putIfAbsent(key(size, difficulty), made);
+        if (shelf == null) {
+            refill(made);
+            return made;
+        }
+        return shelf;
+    }
+
+    /** Gives the workers as many puzzles to generate as the queue needs to be full
+     *
+     * @param shelf the queue
+     */
+    private void refill(Shelf shelf) {
+        while (!closed) {
+            int pending = shelf.pending.get();
+            if (shelf.puzzles.size() + pending >= depth) {
+                return;
+            }
+            if (shelf.pending.compareAndSet(pending, pending + 1)) {
+                try {
+                    workers.execute(() -> produce(shelf));
+                } catch (RejectedExecutionException exc) {
+                    shelf.pending.decrementAndGet(); //the pool was shut down meanwhile
+                    return;
+                }
+            }
+        }
+    }
+
+    /** The work of a worker: generates a puzzle and puts it in the queue
+     *
+     * @param shelf the queue
+     */
+    private void produce(Shelf shelf) {
+        try {
+            long start = System.nanoTime();
+            int[][] puzzle = generate(shelf);
+            shelf.refillNanos.add(System.nanoTime() - start);
+            shelf.refills.increment();
+            shelf.puzzles.offer(puzzle);
+        } finally {
+            shelf.pending.decrementAndGet();
+        }
+        refill(shelf); //a puzzle may have been taken while this one was generated
+    }
+
+    /** Generates a puzzle for a queue
+     * Up to 9x9, where a puzzle takes a few milliseconds, puzzles are generated until Sudoku.Grader gives one the
+     * difficulty of the queue (or GRADE_TRIES have been made). The bigger ones keep the first puzzle, whose
+     * difficulty comes only from how many numbers it has
+     *
+     * @param shelf the queue
+     * @return the puzzle
+     */
+    private static int[][] generate(Shelf shelf) {
+        PuzzleGenerator generator = new PuzzleGenerator();
+        int clues = shelf.difficulty.clues(shelf.size);
+        int[][] puzzle = generator.generate(shelf.size, clues);
+        if (shelf.size <= 9) {
+            Grader grader = new Grader();
+            for (int tries = 1; tries < GRADE_TRIES && grader.grade(puzzle).getDifficulty() != shelf.difficulty; tries++) {
+                puzzle = generator.generate(shelf.size, clues);
+            }
+        }
+        return puzzle;
+    }
+
+    private static int key(int size, Difficulty difficulty) {
+        return size * Difficulty.values().length + difficulty.ordinal();
+    }
+}
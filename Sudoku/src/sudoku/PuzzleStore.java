@@ -0,0 +1,394 @@
+package sudoku;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**@author Alexandros Stergiopoulos & Christos Christidis
+ *
+ * The class Sudoku.PuzzleStore is a binary puzzle file, for libraries with millions of puzzles where the text
+ * files are too big and too slow to read. Its name ends with ".bin" and loadBoard reads it instead of a text file
+ * Every puzzle has a record of the same length, so the puzzle with a code is found without reading the others:
+ * the records are in the order of their codes, and when the codes have no gaps the record of a code is known
+ * directly, otherwise it is found with a binary search
+ * The file is mapped in memory (see java.nio.MappedByteBuffer), so the numbers of a puzzle are read straight
+ * from the mapped file, without parsing text or copying the file in memory. The mapping is shared by all
+ * the boards and made again when the file changes. A mapped file can be up to 2 GB
+ *
+ * The file starts with a header of 6 ints: a magic number, the version, the size of the boards, 1 for killer
+ * puzzles or 0 for classic, the number of records and the length of a record in bytes
+ * A record has the code (int) and then:
+ * - for classic puzzles, the grade (a byte, 255 when there is no grade) and the numbers of the boxes, with as few
+ *   bits as the size needs (4 bits for a 9x9, so 81 boxes take 41 bytes)
+ * - for killer puzzles, the color code of every box and then the sum of every color code, also with as few bits
+ *   as they need
+ * The bits are packed from the lowest bit of every byte, in the flat order of the boxes
+ *
+ * A text file is converted from the command line, adding "killer" for killer files:
+ * java sudoku.PuzzleStore "Classic Sudoku Puzzles.txt"
+ * which writes "Classic Sudoku Puzzles.bin"
+ *
+ */
+public final class PuzzleStore {
+    /**
+     * The end of the name of a binary puzzle file
+     */
+    public static final String EXTENSION = ".bin";
+
+    private static final int MAGIC = 0x53444B42;
+    private static final int VERSION = 1;
+    private static final int HEADER = 24;
+    private static final int NO_GRADE = 255;
+
+    private static final HashMap<String, PuzzleStore> opened = new HashMap<>();
+
+    private final ByteBuffer buffer;
+    private final long lastModified;
+    private final long length;
+    private final BoardGeometry geometry;
+    private final boolean killer;
+    private final int count;
+    private final int recordSize;
+    private final int numberBits;
+    private final int cageBits;
+    private final int sumBits;
+    private final int[] codes;
+    private final int firstCode;
+    private final boolean codesWithoutGaps;
+
+    private PuzzleStore(File file) throws IOException {
+        lastModified = file.lastModified();
+        length = file.length();
+        try (FileChannel channel = new RandomAccessFile(file, "r").getChannel()) {
+            if (channel.size() < HEADER || channel.size() > Integer.MAX_VALUE) {
+                throw new NumberFormatException(file + " is not a puzzle store");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); //it stays valid after closing
+        }
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new NumberFormatException(file + " is not a puzzle store of this version");
+        }
+        geometry = BoardGeometry.of(buffer.getInt(8));
+        killer = buffer.getInt(12) == 1;
+        count = buffer.getInt(16);
+        recordSize = buffer.getInt(20);
+        numberBits = bitsFor(geometry.size);
+        cageBits = bitsFor(geometry.numberOfBoxes);
+        sumBits = bitsFor(geometry.size * geometry.size * (geometry.size + 1) / 2);
+        if (recordSize != recordSize(geometry, killer) || (long) HEADER + (long) count * recordSize > buffer.capacity()) {
+            throw new NumberFormatException(file + " has records of the wrong length");
+        }
+        codes = new int[count];
+        for (int record = 0; record < count; record++) {
+            codes[record] = codeOfRecord(record);
+        }
+        firstCode = count == 0 ? 0 : codes[0];
+        codesWithoutGaps = count == 0 || codes[count - 1] - firstCode == count - 1;
+    }
+
+    /** Gives the store of a binary puzzle file, mapped once and again only if the file changes
+     *
+     * @throws IOException if there is a problem with the file
+     * @throws NumberFormatException if the file is not a puzzle store
+     * @param fileName the name of the file
+     * @return the store
+     */
+    public static synchronized PuzzleStore of(String fileName) throws IOException {
+        File file = new File(fileName);
+        if (!file.isFile()) {
+            throw new IOException("no puzzle file " + fileName);
+        }
+        String key = file.getCanonicalPath();
+        PuzzleStore store = opened.get(key);
+        if (store == null || store.lastModified != file.lastModified() || store.length != file.length()) {
+            store = new PuzzleStore(file);
+            opened.put(key, store);
+        }
+        return store;
+    }
+
+    /** Tells if a file name is the name of a binary puzzle file
+     *
+     * @param fileName the name of the file
+     * @return if it ends with EXTENSION
+     */
+    public static boolean isStore(String fileName) {
+        return fileName.endsWith(EXTENSION);
+    }
+
+    /** Getter for the size of the boards of the store
+     *
+     * @return the size
+     */
+    public int getSize(){return geometry.size;}
+
+    /** Tells if the store has killer puzzles
+     *
+     * @return true for killer puzzles, false for classic ones
+     */
+    public boolean isKiller(){return killer;}
+
+    /** Getter for the number of puzzles
+     *
+     * @return how many puzzles the store has
+     */
+    public int getCount(){return count;}
+
+    /** Gives the codes of all the puzzles
+     *
+     * @return the codes in ascending order, a copy
+     */
+    public int[] getCodes() {
+        return codes.clone();
+    }
+
+    /** Gives the codes of all the puzzles without copying them, for Sudoku.PuzzleCatalog
+     * The array must not be changed
+     *
+     * @return the codes in ascending order
+     */
+    int[] codes() {
+        return codes;
+    }
+
+    /** Finds the record of a code
+     *
+     * @param code the code of the puzzle
+     * @return the record, or -1 if the store has no puzzle with this code
+     */
+    int find(int code) {
+        if (codesWithoutGaps) {
+            int record = code - firstCode;
+            return record >= 0 && record < count ? record : -1;
+        }
+        int record = Arrays.binarySearch(codes, code);
+        return record < 0 ? -1 : record;
+    }
+
+    /** Gives the grade of a classic puzzle (see Sudoku.Grader)
+     *
+     * @param record the record of the puzzle
+     * @return the grade, or -1 if it has no grade
+     */
+    int gradeOf(int record) {
+        int grade = buffer.get(start(record) + 4) & 0xFF;
+        return grade == NO_GRADE ? -1 : grade;
+    }
+
+    /** Gives the number of a box of a classic puzzle
+     *
+     * @param record the record of the puzzle
+     * @param box the box, in the flat order of boxes
+     * @return the number, 0 for empty
+     */
+    int numberOf(int record, int box) {
+        return bits(start(record) + 5, box * numberBits, numberBits);
+    }
+
+    /** Gives the color code of a box of a killer puzzle
+     *
+     * @param record the record of the puzzle
+     * @param box the box, in the flat order of boxes
+     * @return the color code
+     */
+    int cageOf(int record, int box) {
+        return bits(start(record) + 4, box * cageBits, cageBits);
+    }
+
+    /** Gives the sum of a color code of a killer puzzle
+     *
+     * @param record the record of the puzzle
+     * @param cage the color code, from 1
+     * @return the sum
+     */
+    int sumOf(int record, int cage) {
+        return bits(start(record) + 4, geometry.numberOfBoxes * cageBits + (cage - 1) * sumBits, sumBits);
+    }
+
+    private int codeOfRecord(int record) {
+        return buffer.getInt(start(record));
+    }
+
+    private int start(int record) {
+        return HEADER + record * recordSize;
+    }
+
+    /** Reads a number of some bits from the buffer, starting at a bit after a position
+     *
+     * @param position the position in bytes
+     * @param bit the first bit after the position
+     * @param width how many bits
+     * @return the number
+     */
+    private int bits(int position, int bit, int width) {
+        int at = position + (bit >>> 3);
+        long chunk = 0;
+        for (int k = 0; k < 4 && at + k < buffer.capacity(); k++) { //4 bytes have every number of up to 25 bits
+            chunk |= (long) (buffer.get(at + k) & 0xFF) << (8 * k);
+        }
+        return (int) (chunk >>> (bit & 7)) & ((1 << width) - 1);
+    }
+
+    /** How many bits a number needs
+     *
+     * @param max the biggest number
+     * @return the bits
+     */
+    private static int bitsFor(int max) {
+        return 32 - Integer.numberOfLeadingZeros(max);
+    }
+
+    private static int recordSize(BoardGeometry geometry, boolean killer) {
+        int boxes = geometry.numberOfBoxes;
+        if (killer) {
+            int bits = boxes * bitsFor(boxes) + boxes * bitsFor(geometry.size * geometry.size * (geometry.size + 1) / 2);
+            return 4 + (bits + 7) / 8;
+        }
+        return 5 + (boxes * bitsFor(geometry.size) + 7) / 8;
+    }
+
+    /** Converts a text puzzle file to a binary one
+     * The puzzles are read one by one with the same methods that loadBoard uses, so the file is checked
+     * the same way, and they must all have the same size and come in ascending order of codes
+     * The binary file is first written in a temporary file that then replaces the old one
+     *
+     * @throws IOException if there is a problem with the files
+     * @throws NumberFormatException if a puzzle is not stored the right way
+     * @param textFileName the name of the text file
+     * @param storeFileName the name of the binary file
+     * @param killer if the file has killer puzzles or classic ones
+     * @return how many puzzles were converted
+     */
+    public static int convert(String textFileName, String storeFileName, boolean killer) throws IOException {
+        File temporary = new File(storeFileName + ".tmp");
+        ClassicBoard board = null;
+        byte[] record = null;
+        int converted = 0;
+        int lastCode = Integer.MIN_VALUE;
+        try (BufferedReader read = new BufferedReader(new FileReader(textFileName));
+             DataOutputStream write = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+            String line;
+            while ((line = read.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                int code = ClassicBoard.codeOf(line);
+                if (code < 0) {
+                    throw new NumberFormatException("expected the code of a puzzle, found: " + line);
+                }
+                if (code <= lastCode) {
+                    throw new NumberFormatException("the codes must be in ascending order, " + code + " is after " + lastCode);
+                }
+                lastCode = code;
+                read.mark(1 << 16);
+                String firstRow = read.readLine();
+                read.reset();
+                if (firstRow == null) {
+                    throw new NumberFormatException("file ended after the code " + code);
+                }
+                int size = firstRow.trim().split(" ").length;
+                if (board == null) {
+                    board = killer ? new KillerBoard(size, 1, false) : new ClassicBoard(size, 1, false);
+                    record = new byte[recordSize(board.geometry, killer)];
+                    write.writeInt(MAGIC);
+                    write.writeInt(VERSION);
+                    write.writeInt(size);
+                    write.writeInt(killer ? 1 : 0);
+                    write.writeInt(0); //the number of records is written at the end
+                    write.writeInt(record.length);
+                } else if (size != board.sizeOfBlock) {
+                    throw new NumberFormatException("all the puzzles must have the size " + board.sizeOfBlock + ", " + code + " has " + size);
+                }
+                board.readPuzzle(read);
+                encode(board, code, ClassicBoard.gradeOf(line), record);
+                write.write(record);
+                converted++;
+            }
+            if (board == null) { //an empty store has only its header, with the size of this version
+                write.writeInt(MAGIC);
+                write.writeInt(VERSION);
+                write.writeInt(9);
+                write.writeInt(killer ? 1 : 0);
+                write.writeInt(0);
+                write.writeInt(recordSize(BoardGeometry.of(9), killer));
+            }
+        } catch (IOException | RuntimeException exc) {
+            temporary.delete();
+            throw exc;
+        }
+        try (RandomAccessFile header = new RandomAccessFile(temporary, "rw")) {
+            header.seek(16);
+            header.writeInt(converted);
+        }
+        Files.move(temporary.toPath(), Paths.get(storeFileName), StandardCopyOption.REPLACE_EXISTING);
+        return converted;
+    }
+
+    /** Writes the record of the puzzle of a board
+     *
+     * @param board the board, with the puzzle read
+     * @param code the code of the puzzle
+     * @param grade the grade of the puzzle, -1 if it has none
+     * @param record where the record is written
+     */
+    private static void encode(ClassicBoard board, int code, int grade, byte[] record) {
+        Arrays.fill(record, (byte) 0);
+        ByteBuffer.wrap(record).putInt(0, code);
+        BoardGeometry geometry = board.geometry;
+        if (board instanceof KillerBoard) {
+            int[] cageIds = ((KillerBoard) board).getCageIds();
+            int[] sums = ((KillerBoard) board).getCageSums();
+            int cageBits = bitsFor(geometry.numberOfBoxes);
+            int sumBits = bitsFor(geometry.size * geometry.size * (geometry.size + 1) / 2);
+            for (int box = 0; box < cageIds.length; box++) {
+                putBits(record, 4, box * cageBits, cageBits, cageIds[box]);
+            }
+            for (int cage = 1; cage < sums.length; cage++) {
+                if (sums[cage] >= 1 << sumBits) {
+                    throw new NumberFormatException("the sum " + sums[cage] + " of puzzle " + code + " is too big");
+                }
+                putBits(record, 4, geometry.numberOfBoxes * cageBits + (cage - 1) * sumBits, sumBits, sums[cage]);
+            }
+        } else {
+            record[4] = (byte) (grade < 0 || grade >= NO_GRADE ? NO_GRADE : grade);
+            int numberBits = bitsFor(geometry.size);
+            for (int box = 0; box < geometry.numberOfBoxes; box++) {
+                putBits(record, 5, box * numberBits, numberBits, board.boxes[box]);
+            }
+        }
+    }
+
+    private static void putBits(byte[] record, int position, int bit, int width, int value) {
+        for (int k = 0; k < width; k++) {
+            if ((value & (1 << k)) != 0) {
+                int at = bit + k;
+                record[position + (at >>> 3)] |= (byte) (1 << (at & 7));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: PuzzleStore <file.txt> [killer]");
+            return;
+        }
+        boolean killer = args.length > 1 && args[1].equals("killer");
+        String storeFileName = args[0].replaceFirst("\\.txt$", "") + EXTENSION;
+        long start = System.nanoTime();
+        int count = convert(args[0], storeFileName, killer);
+        System.out.println("Converted " + count + " puzzles to " + storeFileName
+                + " (" + (System.nanoTime() - start) / 1_000_000 + " ms)");
+    }
+}
@@ -0,0 +1,90 @@
+package sudoku;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**@author Alexandros Stergiopoulos & Christos Christidis
+ *
+ * The class Sudoku.PuzzleValidator checks a whole puzzle file before it is shipped: every puzzle must have
+ * exactly one solution. The file is read once from top to bottom with the same method that loadBoard uses
+ * for one puzzle, and the puzzles are checked in parallel on all the cores of the computer
+ * The check of every puzzle stops as soon as a second solution is found
+ *
+ * It can be run from the command line with the file name and "killer" for killer files:
+ * java sudoku.PuzzleValidator "Classic Sudoku Puzzles.txt"
+ *
+ */
+public class PuzzleValidator {
+
+    /** Finds the puzzles of a file that have no solution or more than one
+     *
+     * @throws IOException if there is a problem with the file
+     * @throws NumberFormatException if a puzzle is not stored the right way
+     * @param fileName the name of the file
+     * @param killer if the file has killer puzzles or classic ones
+     * @return the codes of the puzzles without a unique solution, in ascending order
+     */
+    public static List<Integer> findPuzzlesWithoutUniqueSolution(String fileName, boolean killer) throws IOException {
+        return readPuzzles(fileName, killer).parallelStream()
+                .filter(board -> !board.hasUniqueSolution())
+                .map(ClassicBoard::getCode)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /** Reads all the puzzles of a file
+     * The size of the boards is found from the first row of every puzzle
+     *
+     * @throws IOException if there is a problem with the file
+     * @param fileName the name of the file
+     * @param killer if the file has killer puzzles or classic ones
+     * @return the boards of all the puzzles with their codes
+     */
+    static List<ClassicBoard> readPuzzles(String fileName, boolean killer) throws IOException {
+        List<ClassicBoard> boards = new ArrayList<>();
+        try (BufferedReader read = new BufferedReader(new FileReader(fileName))) {
+            String line;
+            while ((line = read.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                int code = ClassicBoard.codeOf(line);
+                if (code < 0) {
+                    throw new NumberFormatException("expected the code of a puzzle, found: " + line);
+                }
+                read.mark(1 << 16);
+                String firstRow = read.readLine();
+                read.reset();
+                if (firstRow == null) {
+                    throw new NumberFormatException("file ended after the code " + code);
+                }
+                int size = firstRow.trim().split(" ").length;
+                ClassicBoard board = killer ? new KillerBoard(size, 1, false) : new ClassicBoard(size, 1, false);
+                board.code = code;
+                board.readPuzzle(read);
+                boards.add(board);
+            }
+        }
+        return boards;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: PuzzleValidator <file> [killer]");
+            return;
+        }
+        boolean killer = args.length > 1 && args[1].equals("killer");
+        long start = System.nanoTime();
+        List<Integer> wrong = findPuzzlesWithoutUniqueSolution(args[0], killer);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        if (wrong.isEmpty()) {
+            System.out.println("All the puzzles have a unique solution (" + millis + " ms)");
+        } else {
+            System.out.println("Puzzles without a unique solution: " + wrong + " (" + millis + " ms)");
+        }
+    }
+}
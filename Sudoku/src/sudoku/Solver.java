@@ -0,0 +1,50 @@
+package sudoku;
+
+import java.util.List;
+
+/**@author Alexandros Stergiopoulos & Christos Christidis
+ *
+ * The interface Sudoku.Solver is what every engine that can solve a board has in common
+ * A solver takes the numbers that are already on a board and finds the numbers of the empty boxes
+ * so that every row, column and block has unique numbers
+ * The board itself is never changed, the solutions are returned as two dimensioned arrays
+ * like the ones in the puzzle files
+ * A solver keeps the statistics of its last call, so one object must not be used by two threads at the same time
+ *
+ */
+public interface Solver {
+
+    /** Finds the first solution of the board
+     *
+     * @throws IllegalArgumentException if the size of the board is not a perfect square
+     * @param board the board with the numbers that are already given
+     * @return the solved board or null if the board has no solution
+     */
+    int[][] solve(Board board);
+
+    /** Finds all the solutions of the board, but stops when it has found limit of them
+     *
+     * @throws IllegalArgumentException if the size of the board is not a perfect square or the limit isn't positive
+     * @param board the board with the numbers that are already given
+     * @param limit the most solutions that will be returned
+     * @return a list with the solutions found, which is empty if the board has no solution
+     */
+    List<int[][]> solveAll(Board board, int limit);
+
+    /** Getter for the statistics of the last call of solve or solveAll
+     *
+     * @return the statistics of the last search
+     */
+    SolverStatistics getStatistics();
+
+    /** Checks that the board has exactly one solution
+     * The search stops as soon as it finds a second solution
+     *
+     * @throws IllegalArgumentException if the size of the board is not a perfect square
+     * @param board the board with the numbers that are already given
+     * @return if the board has exactly one solution or not
+     */
+    default boolean hasUniqueSolution(Board board) {
+        return solveAll(board, 2).size() == 1;
+    }
+}
@@ -0,0 +1,100 @@
+package sudoku;
+
+import java.util.EnumSet;
+
+/**@author Alexandros Stergiopoulos & Christos Christidis
+ *
+ * The class Sudoku.SolverStatistics stores what happened during one search of a solver:
+ * how many nodes of the search tree were visited, how many solutions were found, how long it took
+ * and how many times every technique was used (for the solvers that use techniques)
+ * The solvers fill it while they search, the users of a solver only read it
+ *
+ */
+public class SolverStatistics {
+    private long nodes;
+    private int solutions;
+    private long elapsedNanos;
+    private final long[] techniques = new long[Technique.values().length];
+
+    /** Getter for nodes
+     *
+     * @return how many nodes of the search tree were visited
+     */
+    public long getNodes(){return nodes;}
+
+    /** Getter for solutions
+     *
+     * @return how many solutions were found
+     */
+    public int getSolutions(){return solutions;}
+
+    /** Getter for elapsedNanos
+     *
+     * @return how long the search took in nanoseconds
+     */
+    public long getElapsedNanos(){return elapsedNanos;}
+
+    /** Getter for how many times a technique was used
+     *
+     * @param technique the technique
+     * @return how many times it filled a box or removed candidates
+     */
+    public long getTechniqueCount(Technique technique){return techniques[technique.ordinal()];}
+
+    /** Tells which techniques were needed in the search
+     *
+     * @return the techniques that were used at least once
+     */
+    public EnumSet<Technique> getTechniquesUsed(){
+        EnumSet<Technique> used = EnumSet.noneOf(Technique.class);
+        for (Technique technique : Technique.values()) {
+            if (techniques[technique.ordinal()] > 0) {
+                used.add(technique);
+            }
+        }
+        return used;
+    }
+
+    /** Adds the uses of the techniques, called by the solvers
+     *
+     * @param counts how many times every technique was used, in the order of Technique.values()
+     */
+    void addTechniques(long[] counts){
+        for (int i = 0; i < counts.length; i++) {
+            techniques[i] += counts[i];
+        }
+    }
+
+    /** Adds visited nodes, called by the solvers
+     *
+     * @param count how many nodes were visited
+     */
+    void addNodes(long count){
+        nodes+=count;
+    }
+
+    /** Called by the solvers when the search has ended
+     *
+     * @param solutions how many solutions were found
+     * @param elapsedNanos how long the search took
+     */
+    void finish(int solutions, long elapsedNanos){
+        this.solutions=solutions;
+        this.elapsedNanos=elapsedNanos;
+    }
+
+    /** toString method with all the statistics in one line
+     *
+     * @return the statistics
+     */
+    @Override
+    public String toString(){
+        StringBuilder text = new StringBuilder();
+        text.append("nodes: ").append(nodes).append(", solutions: ").append(solutions)
+                .append(", time: ").append(elapsedNanos / 1000).append(" us");
+        for (Technique technique : getTechniquesUsed()) {
+            text.append(", ").append(technique).append(": ").append(techniques[technique.ordinal()]);
+        }
+        return text.toString();
+    }
+}
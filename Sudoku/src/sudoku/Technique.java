@@ -0,0 +1,36 @@
+package sudoku;
+
+/**@author Alexandros Stergiopoulos & Christos Christidis
+ *
+ * The enum Sudoku.Technique names the logical techniques that the solvers use to fill boxes or remove
+ * candidates without guessing, so that the statistics can tell which of them were needed
+ *
+ */
+public enum Technique {
+    /** A box that has only one candidate left gets it */
+    NAKED_SINGLE,
+    /** A number that fits in only one box of a row, column or block goes there */
+    HIDDEN_SINGLE,
+    /** A number that in a block fits only in one row or column (or the opposite) is removed from the rest of it */
+    LOCKED_CANDIDATES,
+    /** In killer, a color group keeps only the numbers that are in a combination that makes its sum */
+    CAGE_COMBINATIONS,
+    /** In killer, the rule of 45: the boxes of a row, column or block that stick in (or out of) its color groups
+     * must make the rest of the sum, and they are treated like one more color group */
+    INNIES_OUTIES,
+    /** Two boxes of a row, column or block that have the same two candidates take those two numbers,
+     * so the numbers are removed from the rest of the row, column or block */
+    NAKED_PAIR,
+    /** Two numbers that fit only in the same two boxes of a row, column or block are the only candidates
+     * of those boxes */
+    HIDDEN_PAIR,
+    /** A number that fits in the same two columns of two rows is removed from the rest of those columns
+     * (and the same with rows and columns swapped) */
+    X_WING,
+    /** The X-wing with three rows and three columns */
+    SWORDFISH,
+    /** The boxes of a number that are linked by rows, columns or blocks where the number fits only in two boxes
+     * are colored with two colors, one of which is the true one: a box that sees both colors can't have
+     * the number, and a color that sees itself is false */
+    SIMPLE_COLORING
+}
@@ -0,0 +1,96 @@
+package sudoku;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**@author Alexandros Stergiopoulos & Christos Christidis
+ *
+ * The class Sudoku.UnplayedPuzzles keeps the codes of the puzzles of a file that a player hasn't won yet,
+ * so that a new game is chosen at once, however many puzzles the player has won
+ * The codes that are left are kept in an array: a random one is picked from a random position, and a code that is
+ * won is removed by moving the last code of the array in its place. The position of every code is kept too, in the
+ * order of the codes of the file, so it is found with a binary search
+ * A player keeps one object for every mode (see Sudoku.Player), made again when the file or the set of won codes
+ * changes in another way than through won
+ *
+ */
+final class UnplayedPuzzles {
+    private final int[] codes;
+    private final WonGames wonGames;
+    private final int[] remaining;
+    private final int[] position;
+    private int size;
+    private int wonSize;
+
+    /** Makes the codes of a file that are not in a set of won codes
+     *
+     * @param codes the codes of the puzzles of the file, in ascending order
+     * @param wonGames the codes of the won puzzles, which may also have codes that are not in the file
+     */
+    UnplayedPuzzles(int[] codes, WonGames wonGames) {
+        this.codes = codes;
+        this.wonGames = wonGames;
+        remaining = new int[codes.length];
+        position = new int[codes.length];
+        for (int index = 0; index < codes.length; index++) {
+            if (wonGames.contains(codes[index])) {
+                position[index] = -1;
+            } else {
+                position[index] = size;
+                remaining[size++] = codes[index];
+            }
+        }
+        wonSize = wonGames.size();
+    }
+
+    /** Tells if the object still describes the codes of a file and a set of won codes
+     *
+     * @param codes the codes of the puzzles of the file
+     * @param wonGames the codes of the won puzzles
+     * @return false if the file or the set is another one, or the set has changed without won being called
+     */
+    boolean isFor(int[] codes, WonGames wonGames) {
+        return this.codes == codes && this.wonGames == wonGames && wonSize == wonGames.size();
+    }
+
+    /** Removes a code that has just been added to the set of won codes
+     *
+     * @param code the code of the won puzzle
+     */
+    void won(int code) {
+        wonSize = wonGames.size();
+        int index = Arrays.binarySearch(codes, code);
+        if (index < 0 || position[index] < 0) {
+            return;
+        }
+        int last = remaining[--size];
+        remaining[position[index]] = last;
+        position[Arrays.binarySearch(codes, last)] = position[index];
+        position[index] = -1;
+    }
+
+    /** Tells how many puzzles are not won
+     *
+     * @return how many codes are left
+     */
+    int size() {
+        return size;
+    }
+
+    /** Tells if the player has won all the puzzles of the file
+     *
+     * @return if no code is left
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Picks a random puzzle that is not won, or any puzzle of the file if all of them are won
+     *
+     * @return the code of the puzzle
+     */
+    int pick() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return size == 0 ? codes[random.nextInt(codes.length)] : remaining[random.nextInt(size)];
+    }
+}
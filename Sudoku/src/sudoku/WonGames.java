@@ -0,0 +1,104 @@
+package sudoku;
+
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+/**@author Alexandros Stergiopoulos & Christos Christidis
+ *
+ * The class Sudoku.WonGames holds the codes of the puzzles of a mode that a player has won
+ * The codes are the bits of a java.util.BitSet, so a code takes one bit and not an Integer in a HashSet:
+ * a player who has won the puzzles 1 to 100000 needs about 12 KB. The number of codes is counted when they
+ * are added, so size doesn't have to count the bits
+ * Outside the package it can only be read: the codes are added through Sudoku.Player
+ *
+ */
+public final class WonGames {
+    private final BitSet codes;
+    private int size;
+
+    /** Makes an empty set of codes
+     *
+     */
+    WonGames() {
+        codes = new BitSet();
+    }
+
+    /** Copy constructor
+     *
+     * @param other the set that is copied
+     */
+    WonGames(WonGames other) {
+        codes = (BitSet) other.codes.clone();
+        size = other.size;
+    }
+
+    /** Adds a code
+     *
+     * @throws IllegalArgumentException if the code is not positive
+     * @param code the code of a won puzzle
+     * @return true if the code wasn't in the set before
+     */
+    boolean add(int code) {
+        if (code < 1) {
+            throw new IllegalArgumentException("code must be positive number");
+        }
+        if (codes.get(code)) {
+            return false;
+        }
+        codes.set(code);
+        size++;
+        return true;
+    }
+
+    /** Tells if a puzzle is won
+     *
+     * @param code the code of the puzzle
+     * @return if the code is in the set
+     */
+    public boolean contains(int code) {
+        return code >= 1 && codes.get(code);
+    }
+
+    /** Getter for the number of codes
+     *
+     * @return how many puzzles are won
+     */
+    public int size(){return size;}
+
+    /** Tells if no puzzle is won
+     *
+     * @return if the set is empty
+     */
+    public boolean isEmpty(){return size == 0;}
+
+    /** Gives the codes in ascending order
+     *
+     * @return a stream of the codes
+     */
+    public IntStream stream() {
+        return codes.stream();
+    }
+
+    /** Gives the codes in ascending order
+     *
+     * @return a new array with the codes
+     */
+    public int[] toArray() {
+        return codes.stream().toArray();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof WonGames && codes.equals(((WonGames) other).codes);
+    }
+
+    @Override
+    public int hashCode() {
+        return codes.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return codes.toString();
+    }
+}